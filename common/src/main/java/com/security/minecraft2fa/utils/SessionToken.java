@@ -0,0 +1,94 @@
+package com.security.minecraft2fa.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+/**
+ * Jeton de session signé (HMAC-SHA256) échangé avec le module proxy par plugin messaging.
+ *
+ * Format : type (byte), UUID (2 longs), longueur de l'IP (byte), octets de l'IP,
+ * expiration de la session (long), date d'émission (long), signature (32 octets).
+ * Partagé par le plugin serveur et le module proxy (module common).
+ */
+public final class SessionToken {
+
+    public static final String CHANNEL = "minecraft2fa:session";
+    public static final byte TYPE_AUTH = 1;
+    public static final byte TYPE_REVOKE = 2;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+
+    public record Payload(byte type, UUID uuid, String ip, long expiresAt, long issuedAt) {}
+
+    private SessionToken() {
+    }
+
+    public static byte[] encode(Payload payload, byte[] secret) throws Exception {
+        byte[] ipBytes = InetAddress.getByName(payload.ip()).getAddress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 16 + 1 + ipBytes.length + 8 + 8 + MAC_LENGTH);
+        buffer.put(payload.type());
+        buffer.putLong(payload.uuid().getMostSignificantBits());
+        buffer.putLong(payload.uuid().getLeastSignificantBits());
+        buffer.put((byte) ipBytes.length);
+        buffer.put(ipBytes);
+        buffer.putLong(payload.expiresAt());
+        buffer.putLong(payload.issuedAt());
+
+        Mac mac = mac(secret);
+        mac.update(buffer.array(), 0, buffer.position());
+        buffer.put(mac.doFinal());
+        return buffer.array();
+    }
+
+    /**
+     * Décode un jeton et vérifie sa signature, retourne null s'il est invalide
+     */
+    public static Payload decode(byte[] data, byte[] secret) {
+        try {
+            if (data.length < 1 + 16 + 1 + 4 + 8 + 8 + MAC_LENGTH) {
+                return null;
+            }
+            int signedLength = data.length - MAC_LENGTH;
+            Mac mac = mac(secret);
+            mac.update(data, 0, signedLength);
+            byte[] expected = mac.doFinal();
+            byte[] actual = new byte[MAC_LENGTH];
+            System.arraycopy(data, signedLength, actual, 0, MAC_LENGTH);
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return null;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(data, 0, signedLength);
+            byte type = buffer.get();
+            UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+            int ipLength = buffer.get();
+            if (ipLength != 4 && ipLength != 16) {
+                return null;
+            }
+            byte[] ipBytes = new byte[ipLength];
+            buffer.get(ipBytes);
+            long expiresAt = buffer.getLong();
+            long issuedAt = buffer.getLong();
+            return new Payload(type, uuid, InetAddress.getByAddress(ipBytes).getHostAddress(), expiresAt, issuedAt);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static byte[] secretBytes(String secret) {
+        return secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Mac mac(byte[] secret) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(new SecretKeySpec(secret, ALGORITHM));
+        return mac;
+    }
+}
@@ -0,0 +1,293 @@
+package com.security.minecraft2fa;
+
+import com.security.minecraft2fa.api.TwoFactorApi;
+import com.security.minecraft2fa.api.TwoFactorStateChangeEvent;
+import com.security.minecraft2fa.commands.TwoFactorAuthCommand;
+import com.security.minecraft2fa.commands.TwoFactorAuthAdminCommand;
+import com.security.minecraft2fa.listeners.PlayerListener;
+import com.security.minecraft2fa.listeners.ProxyHandoffListener;
+import com.security.minecraft2fa.managers.AuthManager;
+import com.security.minecraft2fa.managers.CredentialStuffingDetector;
+import com.security.minecraft2fa.managers.LockManager;
+import com.security.minecraft2fa.managers.LockoutManager;
+import com.security.minecraft2fa.managers.RevalidationSweeper;
+import com.security.minecraft2fa.managers.TotpReplayGuard;
+import com.security.minecraft2fa.storage.AuthEventStore;
+import com.security.minecraft2fa.storage.DatabaseManager;
+import com.security.minecraft2fa.storage.PendingSetupStore;
+import com.security.minecraft2fa.storage.SessionManager;
+import com.security.minecraft2fa.utils.HandlerTimings;
+import com.security.minecraft2fa.utils.IoExecutor;
+import com.security.minecraft2fa.utils.ReadinessGate;
+import lombok.Getter;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.ServicePriority;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class Minecraft2FAPlugin extends JavaPlugin {
+    
+    @Getter
+    private static Minecraft2FAPlugin instance;
+    
+    @Getter
+    private IoExecutor ioExecutor;
+    
+    @Getter
+    private ReadinessGate readinessGate;
+    
+    @Getter
+    private HandlerTimings handlerTimings;
+    
+    @Getter
+    private DatabaseManager databaseManager;
+    
+    @Getter
+    private AuthEventStore authEventStore;
+    
+    @Getter
+    private AuthManager authManager;
+    
+    @Getter
+    private SessionManager sessionManager;
+    
+    @Getter
+    private LockManager lockManager;
+    
+    @Getter
+    private LockoutManager lockoutManager;
+    
+    @Getter
+    private PendingSetupStore pendingSetupStore;
+    
+    @Getter
+    private TotpReplayGuard replayGuard;
+    
+    @Getter
+    private CredentialStuffingDetector threatDetector;
+    
+    @Getter
+    private ProxyHandoffListener proxyHandoff;
+    
+    private RevalidationSweeper revalidationSweeper;
+
+    public Minecraft2FAPlugin() {
+        super();
+    }
+
+    /**
+     * Constructeur utilisé par le serveur simulé des tests (MockBukkit)
+     */
+    protected Minecraft2FAPlugin(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+        super(loader, description, dataFolder, file);
+    }
+
+    @Override
+    public void onEnable() {
+        instance = this;
+        
+        getLogger().info("Démarrage du plugin 2FA...");
+        
+        // Sauvegarde de la configuration par défaut
+        saveDefaultConfig();
+        reloadConfig();
+        
+        // Création du dossier du plugin s'il n'existe pas
+        if (!getDataFolder().exists()) {
+            getLogger().info("Création du dossier du plugin...");
+            getDataFolder().mkdirs();
+        }
+        
+        try {
+            // Exécuteur commun à toutes les opérations bloquantes
+            this.ioExecutor = new IoExecutor(this);
+            this.readinessGate = new ReadinessGate();
+            this.handlerTimings = new HandlerTimings(this);
+            long startupStart = System.nanoTime();
+            
+            // Initialisation des stockages en parallèle, hors du thread principal
+            getLogger().info("Initialisation de la base de données, des sessions et des blocages en arrière-plan...");
+            this.databaseManager = new DatabaseManager(this);
+            this.sessionManager = new SessionManager(this);
+            this.lockoutManager = new LockoutManager(this);
+            CompletableFuture<Void> storageReady = CompletableFuture.allOf(
+                readinessGate.track("base de données", () -> ioExecutor.run(IoExecutor.Category.DATABASE, databaseManager::initialize)),
+                readinessGate.track("sessions", () -> ioExecutor.run(IoExecutor.Category.REDIS, sessionManager::initialize)),
+                readinessGate.track("blocages", () -> ioExecutor.run(IoExecutor.Category.FILE, lockoutManager::load))
+            );
+            
+            this.pendingSetupStore = new PendingSetupStore(this);
+            this.pendingSetupStore.start();
+            
+            // Les événements sont mis en file dès maintenant, écrits une fois la base prête
+            this.authEventStore = new AuthEventStore(this);
+            
+            this.replayGuard = new TotpReplayGuard(this);
+            this.threatDetector = new CredentialStuffingDetector(this);
+            
+            getLogger().info("Initialisation du gestionnaire d'authentification...");
+            this.authManager = new AuthManager(this);
+            this.authManager.initializeWebhook();
+            getLogger().info("Gestionnaire d'authentification initialisé!");
+            
+            this.lockManager = new LockManager(this);
+            
+            // Enregistrement des commandes
+            getLogger().info("Enregistrement des commandes...");
+            getCommand("2fa").setExecutor(new TwoFactorAuthCommand(this));
+            getCommand("2fa-admin").setExecutor(new TwoFactorAuthAdminCommand(this));
+            
+            // Enregistrement des listeners
+            getLogger().info("Enregistrement des événements...");
+            PlayerListener playerListener = new PlayerListener(this);
+            getServer().getPluginManager().registerEvents(playerListener, this);
+            
+            // Transmission des sessions via le module proxy
+            if (getConfig().getBoolean("proxy.enabled", false)) {
+                String secret = getConfig().getString("proxy.secret", "");
+                if (secret.isEmpty()) {
+                    getLogger().warning("proxy.enabled est actif mais proxy.secret est vide - Transmission des sessions désactivée");
+                } else {
+                    proxyHandoff = new ProxyHandoffListener(this, secret);
+                    proxyHandoff.register();
+                    getLogger().info("Transmission des sessions via le proxy activée!");
+                }
+            }
+            
+            // Initialisation des écouteurs LuckPerms
+            getLogger().info("Initialisation des écouteurs LuckPerms...");
+            playerListener.registerLuckPermsEvents();
+            getLogger().info("Écouteurs LuckPerms initialisés!");
+            
+            // Réévalue les joueurs déjà connectés (rechargement du plugin) : bloqués jusqu'à la fin de l'initialisation
+            for (Player player : getServer().getOnlinePlayers()) {
+                lockManager.refresh(player, TwoFactorStateChangeEvent.Reason.JOIN);
+            }
+            
+            // Surveillance du temps passé par tick dans les handlers du plugin
+            handlerTimings.start();
+            
+            // Revalidation périodique et incrémentale des joueurs connectés
+            revalidationSweeper = new RevalidationSweeper(this);
+            revalidationSweeper.start();
+            
+            // Publication de l'API pour les autres plugins
+            getServer().getServicesManager().register(TwoFactorApi.class, lockManager, this, ServicePriority.Normal);
+            
+            storageReady.whenComplete((result, error) -> {
+                if (isEnabled()) {
+                    getServer().getScheduler().runTask(this, () -> onStorageReady(error, startupStart));
+                }
+            });
+            
+            getLogger().info("Plugin 2FA activé - Initialisation des stockages en cours...");
+            
+        } catch (Exception e) {
+            getLogger().severe("Erreur lors de l'initialisation du plugin: " + e.getMessage());
+            getLogger().severe("Stack trace: " + e.toString());
+            getServer().getPluginManager().disablePlugin(this);
+            return;
+        }
+    }
+
+    /**
+     * Ouvre la barrière de démarrage une fois les stockages initialisés (thread principal)
+     */
+    private void onStorageReady(Throwable error, long startupStart) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (error != null) {
+            getLogger().severe("Erreur lors de l'initialisation des stockages: " + error.getMessage());
+        }
+        
+        readinessGate.open();
+        authEventStore.start();
+        databaseManager.startSecretInvalidation();
+        for (Player player : getServer().getOnlinePlayers()) {
+            lockManager.refresh(player, TwoFactorStateChangeEvent.Reason.JOIN);
+        }
+        
+        // Vérification du mode multi-serveur
+        if (getConfig().getBoolean("redis.enabled", false)) {
+            getLogger().info("Mode multi-serveur activé!");
+            getLogger().info("Redis host: " + getConfig().getString("redis.host"));
+            getLogger().info("Redis port: " + getConfig().getInt("redis.port"));
+            if (sessionManager.isUsingRedis()) {
+                getLogger().info("Connexion Redis établie avec succès!");
+            } else {
+                getLogger().warning("Redis est activé dans la configuration mais la connexion a échoué!");
+                getLogger().warning("Le plugin fonctionnera en mode standalone jusqu'à ce que Redis soit disponible.");
+            }
+        } else {
+            getLogger().info("Mode standalone activé - Les sessions ne seront pas partagées entre les serveurs");
+        }
+        
+        StringBuilder details = new StringBuilder();
+        readinessGate.getTimings().forEach((component, millis) ->
+            details.append(details.length() == 0 ? "" : ", ").append(component).append(": ").append(millis).append(" ms"));
+        getLogger().info("Plugin 2FA prêt en " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startupStart)
+            + " ms (" + details + ")");
+    }
+
+    @Override
+    public void onDisable() {
+        getLogger().info("Arrêt du plugin 2FA...");
+        
+        if (proxyHandoff != null) {
+            proxyHandoff.unregister();
+        }
+        
+        getServer().getServicesManager().unregisterAll(this);
+        
+        if (revalidationSweeper != null) {
+            revalidationSweeper.stop();
+        }
+        
+        if (handlerTimings != null) {
+            handlerTimings.stop();
+        }
+        
+        if (lockManager != null) {
+            lockManager.shutdown();
+        }
+        
+        if (lockoutManager != null) {
+            lockoutManager.shutdown();
+        }
+        
+        if (pendingSetupStore != null) {
+            pendingSetupStore.shutdown();
+        }
+        
+        if (authEventStore != null) {
+            authEventStore.shutdown();
+        }
+        
+        if (ioExecutor != null) {
+            getLogger().info("Attente des opérations d'E/S en cours...");
+            ioExecutor.shutdown();
+        }
+        
+        if (databaseManager != null) {
+            databaseManager.stopSecretInvalidation();
+        }
+        
+        if (sessionManager != null) {
+            getLogger().info("Fermeture du gestionnaire de sessions...");
+            sessionManager.close();
+        }
+        
+        if (databaseManager != null) {
+            getLogger().info("Fermeture de la base de données...");
+            databaseManager.close();
+        }
+        
+        getLogger().info("Plugin 2FA désactivé!");
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.security.minecraft2fa.api;
+
+/**
+ * État 2FA d'un joueur, tel que connu en mémoire par le plugin
+ */
+public enum AuthState {
+    /** Joueur hors ligne ou pas encore évalué */
+    OFFLINE,
+    /** Joueur sans permission sensible : le 2FA n'est pas exigé */
+    NOT_REQUIRED,
+    /** Joueur avec permissions sensibles, bloqué en attente d'authentification */
+    LOCKED,
+    /** Joueur avec permissions sensibles et une session 2FA valide */
+    AUTHENTICATED
+}
@@ -0,0 +1,47 @@
+package com.security.minecraft2fa.api;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * API publique du plugin 2FA, enregistrée dans le ServicesManager de Bukkit.
+ *
+ * Toutes les lectures sont servies depuis la mémoire, en O(1), sans accès Redis ni base de données,
+ * et peuvent être appelées depuis n'importe quel thread. Pour être notifié des changements plutôt
+ * que d'interroger l'API, écoutez {@link TwoFactorStateChangeEvent}.
+ */
+public interface TwoFactorApi {
+
+    /**
+     * État actuel d'un joueur ({@link AuthState#OFFLINE} s'il n'est pas connecté)
+     */
+    AuthState getState(UUID uuid);
+
+    /**
+     * États de plusieurs joueurs en un seul appel
+     */
+    Map<UUID, AuthState> getStates(Collection<UUID> uuids);
+
+    /**
+     * Indique si le joueur a des permissions sensibles et une session 2FA valide
+     */
+    default boolean isAuthenticated(UUID uuid) {
+        return getState(uuid) == AuthState.AUTHENTICATED;
+    }
+
+    /**
+     * Indique si le joueur a des permissions nécessitant le 2FA
+     */
+    default boolean requiresAuth(UUID uuid) {
+        AuthState state = getState(uuid);
+        return state == AuthState.LOCKED || state == AuthState.AUTHENTICATED;
+    }
+
+    /**
+     * Indique si le joueur est bloqué en attente d'authentification
+     */
+    default boolean isLocked(UUID uuid) {
+        return getState(uuid) == AuthState.LOCKED;
+    }
+}
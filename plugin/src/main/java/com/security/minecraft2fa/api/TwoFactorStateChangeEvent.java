@@ -0,0 +1,52 @@
+package com.security.minecraft2fa.api;
+
+import lombok.Getter;
+import org.bukkit.entity.Player;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.player.PlayerEvent;
+
+/**
+ * Appelé sur le thread principal lorsque l'état 2FA d'un joueur change
+ */
+@Getter
+public class TwoFactorStateChangeEvent extends PlayerEvent {
+
+    public enum Reason {
+        /** Évaluation à la connexion */
+        JOIN,
+        /** Code 2FA vérifié avec succès */
+        VERIFY,
+        /** Configuration 2FA terminée */
+        SETUP,
+        /** Déconnexion du joueur */
+        LOGOUT,
+        /** 2FA réinitialisé ou désactivé */
+        RESET,
+        /** Session 2FA expirée ou invalidée */
+        EXPIRY,
+        /** Permissions du joueur modifiées */
+        PERMISSION_CHANGE
+    }
+
+    private static final HandlerList HANDLERS = new HandlerList();
+
+    private final AuthState previousState;
+    private final AuthState newState;
+    private final Reason reason;
+
+    public TwoFactorStateChangeEvent(Player player, AuthState previousState, AuthState newState, Reason reason) {
+        super(player);
+        this.previousState = previousState;
+        this.newState = newState;
+        this.reason = reason;
+    }
+
+    @Override
+    public HandlerList getHandlers() {
+        return HANDLERS;
+    }
+
+    public static HandlerList getHandlerList() {
+        return HANDLERS;
+    }
+}
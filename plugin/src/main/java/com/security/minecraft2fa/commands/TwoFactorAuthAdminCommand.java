@@ -0,0 +1,546 @@
+package com.security.minecraft2fa.commands;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.api.AuthState;
+import com.security.minecraft2fa.managers.CredentialStuffingDetector;
+import com.security.minecraft2fa.storage.AuthEventStore;
+import com.security.minecraft2fa.storage.EnrolmentTransfer;
+import com.security.minecraft2fa.storage.RedisCircuitBreaker;
+import com.security.minecraft2fa.utils.HandlerTimings;
+import com.security.minecraft2fa.utils.IoExecutor;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandExecutor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RequiredArgsConstructor
+public class TwoFactorAuthAdminCommand implements CommandExecutor {
+
+    private final Minecraft2FAPlugin plugin;
+
+    private static final int PAGE_SIZE = 10;
+
+    private final AtomicBoolean transferRunning = new AtomicBoolean(false);
+
+    private enum ListFilter {
+        ENROLLED("Joueurs avec 2FA"),
+        UNAUTHENTICATED("Joueurs non authentifiés"),
+        NO_2FA_BUT_SENSITIVE("Permissions sensibles sans 2FA");
+
+        private final String title;
+
+        ListFilter(String title) {
+            this.title = title;
+        }
+    }
+
+    private record PlayerSnapshot(UUID uuid, String name, boolean sensitive, boolean authenticated) {}
+
+    private record HistoryRequest(boolean byIp, String value, String label, long since, AuthEventStore.Cursor cursor) {}
+
+    private static final DateTimeFormatter HISTORY_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")
+        .withZone(ZoneId.systemDefault());
+
+    // Position de la dernière page d'historique affichée, par expéditeur
+    private final Map<String, HistoryRequest> historyCursors = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        if (!sender.hasPermission("minecraft2fa.admin")) {
+            sender.sendMessage("§cVous n'avez pas la permission d'utiliser cette commande!");
+            return true;
+        }
+
+        if (args.length == 0) {
+            sendHelp(sender);
+            return true;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "force-reset":
+                if (args.length != 2) {
+                    sender.sendMessage("§cUtilisation: /2fa-admin force-reset <joueur|uuid>");
+                    return true;
+                }
+                handleForceReset(sender, args[1]);
+                break;
+            case "check":
+                if (args.length != 2) {
+                    sender.sendMessage("§cUtilisation: /2fa-admin check <joueur|uuid>");
+                    return true;
+                }
+                handleCheck(sender, args[1]);
+                break;
+            case "list":
+                handleList(sender, args);
+                break;
+            case "metrics":
+                handleMetrics(sender);
+                break;
+            case "timings":
+                handleTimings(sender);
+                break;
+            case "threats":
+                handleThreats(sender);
+                break;
+            case "history":
+                handleHistory(sender, args);
+                break;
+            case "export":
+            case "import":
+                if (args.length != 2) {
+                    sender.sendMessage("§cUtilisation: /2fa-admin " + args[0].toLowerCase() + " <fichier>");
+                    return true;
+                }
+                handleTransfer(sender, args[0].equalsIgnoreCase("export"), args[1]);
+                break;
+            default:
+                sendHelp(sender);
+                break;
+        }
+
+        return true;
+    }
+
+    private void handleForceReset(CommandSender sender, String targetName) {
+        Player online = Bukkit.getPlayer(targetName);
+
+        // Résolution et réinitialisation (base et Redis) hors du thread principal
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            if (online != null) {
+                plugin.getAuthManager().disable2FA(online);
+                reply(sender, "§aL'authentification à deux facteurs a été réinitialisée pour " + online.getName());
+                reply(online, "§cVotre authentification à deux facteurs a été réinitialisée par un administrateur!");
+                return;
+            }
+
+            OfflinePlayer target = resolveOffline(targetName);
+            if (target == null) {
+                reply(sender, "§cJoueur non trouvé!");
+                return;
+            }
+
+            plugin.getAuthManager().disable2FA(target.getUniqueId());
+            reply(sender, "§aL'authentification à deux facteurs a été réinitialisée pour " + displayName(target));
+        }).exceptionally(e -> {
+            reply(sender, "§cOpération impossible pour le moment, réessayez plus tard.");
+            return null;
+        });
+    }
+
+    private void handleCheck(CommandSender sender, String targetName) {
+        Player online = Bukkit.getPlayer(targetName);
+        String onlineIp = online != null ? online.getAddress().getAddress().getHostAddress() : null;
+
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            OfflinePlayer target = online != null ? online : resolveOffline(targetName);
+            if (target == null) {
+                reply(sender, "§cJoueur non trouvé!");
+                return;
+            }
+
+            UUID uuid = target.getUniqueId();
+            boolean enabled = !plugin.getDatabaseManager().getEnrolled(List.of(uuid)).isEmpty();
+            List<String> sessionIps = plugin.getSessionManager().getSessionIps(uuid);
+
+            List<String> lines = new ArrayList<>();
+            lines.add("§e=== Statut 2FA de " + displayName(target) + " ===");
+            lines.add("§7État: " + (enabled ? "§aActivé" : "§cDésactivé"));
+            if (enabled) {
+                if (onlineIp != null) {
+                    lines.add("§7Session: " + (sessionIps.contains(onlineIp) ? "§aAuthentifié" : "§cNon authentifié"));
+                } else {
+                    lines.add("§7Session: " + (!sessionIps.isEmpty() ? "§aActive §7(hors ligne)" : "§cAucune §7(hors ligne)"));
+                }
+                if (!sessionIps.isEmpty()) {
+                    lines.add("§7IP de confiance: §f" + sessionIps.size());
+                }
+            }
+            reply(sender, lines);
+        }).exceptionally(e -> {
+            reply(sender, "§cOpération impossible pour le moment, réessayez plus tard.");
+            return null;
+        });
+    }
+
+    private void handleList(CommandSender sender, String[] args) {
+        int page = 1;
+        ListFilter filter = ListFilter.ENROLLED;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i].toLowerCase();
+            if (arg.equals("--unauthenticated")) {
+                filter = ListFilter.UNAUTHENTICATED;
+            } else if (arg.equals("--no-2fa-but-sensitive")) {
+                filter = ListFilter.NO_2FA_BUT_SENSITIVE;
+            } else {
+                try {
+                    page = Math.max(1, Integer.parseInt(arg));
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§cUtilisation: /2fa-admin list [page] [--unauthenticated|--no-2fa-but-sensitive]");
+                    return;
+                }
+            }
+        }
+
+        // Instantané des joueurs en ligne sur le thread principal (permissions et état 2FA en mémoire,
+        // sans lecture de session qui prolongerait leur durée de vie)
+        List<PlayerSnapshot> snapshot = new ArrayList<>();
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            AuthState state = plugin.getLockManager().getState(player.getUniqueId());
+            boolean authenticated = state == AuthState.AUTHENTICATED || (state == AuthState.NOT_REQUIRED
+                && plugin.getSessionManager().hasCachedSession(player.getUniqueId(), player.getAddress().getAddress().getHostAddress()));
+            snapshot.add(new PlayerSnapshot(player.getUniqueId(), player.getName(),
+                plugin.getAuthManager().requiresAuth(player), authenticated));
+        }
+
+        final int requestedPage = page;
+        final ListFilter activeFilter = filter;
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            Set<UUID> enrolled = plugin.getDatabaseManager().getEnrolled(
+                snapshot.stream().map(PlayerSnapshot::uuid).toList());
+
+            List<String> entries = new ArrayList<>();
+            for (PlayerSnapshot player : snapshot) {
+                boolean hasEnrolment = enrolled.contains(player.uuid());
+                if (activeFilter == ListFilter.NO_2FA_BUT_SENSITIVE) {
+                    if (!hasEnrolment && player.sensitive()) {
+                        entries.add("§7- " + player.name() + ": §cPermissions sensibles sans 2FA");
+                    }
+                    continue;
+                }
+                if (!hasEnrolment && !(activeFilter == ListFilter.UNAUTHENTICATED && player.sensitive())) {
+                    continue;
+                }
+
+                boolean authenticated = player.authenticated();
+                if (activeFilter == ListFilter.UNAUTHENTICATED && authenticated) {
+                    continue;
+                }
+                entries.add("§7- " + player.name() + ": " + (authenticated ? "§aAuthentifié"
+                    : hasEnrolment ? "§cNon authentifié" : "§cConfiguration requise"));
+            }
+            entries.sort(String.CASE_INSENSITIVE_ORDER);
+
+            int pages = Math.max(1, (entries.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+            int current = Math.min(requestedPage, pages);
+            List<String> lines = new ArrayList<>();
+            lines.add("§e=== " + activeFilter.title + " §7(page " + current + "/" + pages + ") §e===");
+            if (entries.isEmpty()) {
+                lines.add("§7Aucun joueur en ligne ne correspond");
+            } else {
+                lines.addAll(entries.subList((current - 1) * PAGE_SIZE, Math.min(current * PAGE_SIZE, entries.size())));
+            }
+            reply(sender, lines);
+        }).exceptionally(e -> {
+            reply(sender, "§cOpération impossible pour le moment, réessayez plus tard.");
+            return null;
+        });
+    }
+
+    /**
+     * Résout un joueur hors ligne par UUID ou par nom déjà connu du serveur (sans requête web)
+     */
+    private OfflinePlayer resolveOffline(String target) {
+        try {
+            return Bukkit.getOfflinePlayer(UUID.fromString(target));
+        } catch (IllegalArgumentException ignored) {
+            // Ce n'est pas un UUID, recherche par nom
+        }
+        for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+            if (target.equalsIgnoreCase(player.getName())) {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    private String displayName(OfflinePlayer player) {
+        return player.getName() != null ? player.getName() : player.getUniqueId().toString();
+    }
+
+    /**
+     * Renvoie des messages à l'expéditeur sur le thread principal
+     */
+    private void reply(CommandSender sender, String message) {
+        reply(sender, List.of(message));
+    }
+
+    private void reply(CommandSender sender, List<String> lines) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            for (String line : lines) {
+                sender.sendMessage(line);
+            }
+        });
+    }
+
+    private void handleTransfer(CommandSender sender, boolean export, String fileName) {
+        File folder = new File(plugin.getDataFolder(), "transfers");
+        File file = new File(folder, fileName);
+        try {
+            if (!file.getCanonicalPath().startsWith(folder.getCanonicalPath() + File.separator)) {
+                sender.sendMessage("§cLe fichier doit se trouver dans plugins/Minecraft2FA/transfers/");
+                return;
+            }
+        } catch (IOException e) {
+            sender.sendMessage("§cChemin de fichier invalide: " + e.getMessage());
+            return;
+        }
+        if (!export && !file.isFile()) {
+            sender.sendMessage("§cFichier introuvable: transfers/" + fileName);
+            return;
+        }
+        if (!transferRunning.compareAndSet(false, true)) {
+            sender.sendMessage("§cUn import ou export est déjà en cours!");
+            return;
+        }
+
+        String action = export ? "Export" : "Import";
+        sender.sendMessage("§e" + action + " des inscriptions 2FA en cours (transfers/" + fileName + ")...");
+        // Le fichier est traité sur la file FILE ; les lots importés sont écrits via la file DATABASE
+        plugin.getIoExecutor().run(IoExecutor.Category.FILE, () -> {
+            long start = System.currentTimeMillis();
+            try {
+                folder.mkdirs();
+                EnrolmentTransfer transfer = new EnrolmentTransfer(plugin.getDatabaseManager(), plugin.getIoExecutor());
+                long count = export
+                    ? transfer.export(file, progress -> reply(sender, "§7" + action + ": " + progress + " lignes..."))
+                    : transfer.importFrom(file, progress -> reply(sender, "§7" + action + ": " + progress + " lignes..."));
+                reply(sender, "§a" + action + " terminé: " + count + " lignes en " + (System.currentTimeMillis() - start) + " ms");
+                plugin.getLogger().info(action + " de " + count + " inscriptions 2FA (" + file.getName() + ")");
+            } catch (Exception e) {
+                reply(sender, "§c" + action + " échoué: " + e.getMessage());
+                plugin.getLogger().severe(action + " des inscriptions 2FA échoué: " + e.getMessage());
+            } finally {
+                transferRunning.set(false);
+            }
+        }).exceptionally(e -> {
+            transferRunning.set(false);
+            reply(sender, "§cOpération impossible pour le moment, réessayez plus tard.");
+            return null;
+        });
+    }
+
+    private void handleMetrics(CommandSender sender) {
+        sender.sendMessage("§e=== Métriques 2FA ===");
+
+        RedisCircuitBreaker breaker = plugin.getSessionManager().getCircuitBreaker();
+        if (breaker == null) {
+            sender.sendMessage("§7Redis: §cdésactivé");
+        } else {
+            sender.sendMessage("§7Redis: §f" + breaker.getState()
+                + " §7(ouvertures: §f" + breaker.getOpenTransitions().get()
+                + "§7, semi-ouvertures: §f" + breaker.getHalfOpenTransitions().get()
+                + "§7, fermetures: §f" + breaker.getCloseTransitions().get()
+                + "§7, temps ouvert: §f" + (breaker.getTotalOpenMillis() / 1000) + "s§7)");
+        }
+
+        sender.sendMessage("§7Démarrage: §f" + (plugin.getReadinessGate().isReady() ? "terminé" : "en cours"));
+        plugin.getReadinessGate().getTimings().forEach((component, millis) ->
+            sender.sendMessage("§7- " + component + ": §f" + millis + " ms"));
+
+        IoExecutor executor = plugin.getIoExecutor();
+        sender.sendMessage("§7E/S: §f" + (executor.isVirtual() ? "threads virtuels" : "pool de threads borné"));
+        for (IoExecutor.Lane lane : executor.getLanes().values()) {
+            sender.sendMessage(String.format("§7- %s: §fen attente %d§7, actives %d/%d§7, terminées %d§7, refusées %d§7, latence moy. %.1f ms§7, max %.1f ms",
+                lane.getCategory(), lane.getQueued(), lane.getActive(), lane.getConcurrency(),
+                lane.getCompleted().get(), lane.getRejected().get(),
+                lane.getAverageLatencyMillis(), lane.getMaxLatencyMillis()));
+        }
+
+        sender.sendMessage("§7Cache des clés 2FA:");
+        for (String tier : plugin.getDatabaseManager().getSecretCacheStats()) {
+            sender.sendMessage("§7- §f" + tier);
+        }
+
+        if (plugin.getAuthEventStore().isEnabled()) {
+            sender.sendMessage("§7Historique: §f" + plugin.getAuthEventStore().getDropped() + " §7événement(s) perdu(s)");
+        }
+    }
+
+    private void handleTimings(CommandSender sender) {
+        HandlerTimings timings = plugin.getHandlerTimings();
+        if (!timings.isEnabled()) {
+            sender.sendMessage("§cLa mesure des handlers est désactivée (diagnostics.timings)");
+            return;
+        }
+
+        sender.sendMessage("§e=== Temps des handlers 2FA ===");
+        sender.sendMessage("§7Dépassements du budget de tick: §f" + timings.getBudgetOverruns().get()
+            + (timings.isDegraded() ? " §c(mode dégradé actif)" : ""));
+        timings.getHistograms().forEach((name, histogram) ->
+            sender.sendMessage(String.format("§7- %s: §f%d appels§7, moy. %.3f ms§7, p50 ≤ %.3f ms§7, p99 ≤ %.3f ms§7, max %.3f ms",
+                name, histogram.getCount().get(), histogram.getAverageMillis(),
+                histogram.getPercentileMillis(0.50), histogram.getPercentileMillis(0.99), histogram.getMaxMillis())));
+    }
+
+    private void handleThreats(CommandSender sender) {
+        CredentialStuffingDetector detector = plugin.getThreatDetector();
+        if (!detector.isEnabled()) {
+            sender.sendMessage("§cLa détection du credential stuffing est désactivée (threats.enabled)");
+            return;
+        }
+
+        List<CredentialStuffingDetector.SourceState> threats = detector.getThreats();
+        sender.sendMessage("§e=== Sources d'échecs 2FA ===");
+        if (threats.isEmpty()) {
+            sender.sendMessage("§aAucun échec récent");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (CredentialStuffingDetector.SourceState threat : threats.subList(0, Math.min(PAGE_SIZE, threats.size()))) {
+            sender.sendMessage("§7- " + threat.source() + ": §f" + threat.failures() + " échecs§7, ~§f"
+                + threat.accounts() + " compte(s)"
+                + (threat.throttledUntil() > 0 ? " §c(ralentie encore " + (threat.throttledUntil() - now + 999) / 1000 + " s)" : ""));
+        }
+        if (threats.size() > PAGE_SIZE) {
+            sender.sendMessage("§7... et " + (threats.size() - PAGE_SIZE) + " autre(s)");
+        }
+    }
+
+    private void handleHistory(CommandSender sender, String[] args) {
+        if (!plugin.getAuthEventStore().isEnabled()) {
+            sender.sendMessage("§cL'historique est désactivé (history.enabled)");
+            return;
+        }
+        String usage = "§cUtilisation: /2fa-admin history <joueur|uuid|ip> [--since <durée: 30m, 12h, 7d>] | --next";
+
+        if (args.length == 2 && args[1].equalsIgnoreCase("--next")) {
+            HistoryRequest previous = historyCursors.get(sender.getName());
+            if (previous == null) {
+                sender.sendMessage("§cAucune page suivante");
+                return;
+            }
+            sendHistoryPage(sender, previous);
+            return;
+        }
+
+        long since = 0;
+        if (args.length == 4 && args[2].equalsIgnoreCase("--since")) {
+            long duration = parseDuration(args[3]);
+            if (duration <= 0) {
+                sender.sendMessage(usage);
+                return;
+            }
+            since = System.currentTimeMillis() - duration;
+        } else if (args.length != 2) {
+            sender.sendMessage(usage);
+            return;
+        }
+
+        String target = args[1];
+        long from = since;
+        // Une IP contient "." ou ":", jamais un pseudo ni un UUID
+        if (target.contains(".") || target.contains(":")) {
+            sendHistoryPage(sender, new HistoryRequest(true, target, target, from, AuthEventStore.Cursor.START));
+            return;
+        }
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            OfflinePlayer player = resolveOffline(target);
+            if (player == null) {
+                reply(sender, "§cJoueur non trouvé!");
+                return;
+            }
+            sendHistoryPage(sender, new HistoryRequest(false, player.getUniqueId().toString(), displayName(player),
+                from, AuthEventStore.Cursor.START));
+        }).exceptionally(e -> {
+            reply(sender, "§cOpération impossible pour le moment, réessayez plus tard.");
+            return null;
+        });
+    }
+
+    /**
+     * Lit et affiche une seule page d'historique, puis retient la position pour --next
+     */
+    private void sendHistoryPage(CommandSender sender, HistoryRequest request) {
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            AuthEventStore.Page page;
+            try {
+                page = plugin.getAuthEventStore().query(request.byIp(), request.value(), request.since(), request.cursor(), PAGE_SIZE);
+            } catch (Exception e) {
+                reply(sender, "§cLecture de l'historique impossible: " + e.getMessage());
+                return;
+            }
+
+            List<String> lines = new ArrayList<>();
+            lines.add("§e=== Historique 2FA de " + request.label() + " ===");
+            if (page.events().isEmpty()) {
+                lines.add("§7Aucun événement");
+            }
+            for (AuthEventStore.AuthEvent event : page.events()) {
+                StringBuilder line = new StringBuilder("§7").append(HISTORY_DATE.format(Instant.ofEpochMilli(event.ts())))
+                    .append(" §f").append(event.type());
+                if (request.byIp() && event.name() != null) {
+                    line.append(" §7").append(event.name());
+                } else if (!request.byIp() && event.ip() != null) {
+                    line.append(" §7").append(event.ip());
+                }
+                if (event.detail() != null) {
+                    line.append(" §8(").append(event.detail()).append(")");
+                }
+                lines.add(line.toString());
+            }
+
+            if (page.next() != null) {
+                historyCursors.put(sender.getName(), new HistoryRequest(request.byIp(), request.value(), request.label(),
+                    request.since(), page.next()));
+                lines.add("§7/2fa-admin history --next §f- Page suivante");
+            } else {
+                historyCursors.remove(sender.getName());
+            }
+            reply(sender, lines);
+        }).exceptionally(e -> {
+            reply(sender, "§cOpération impossible pour le moment, réessayez plus tard.");
+            return null;
+        });
+    }
+
+    /**
+     * Durée en millisecondes ("30m", "12h", "7d", "2w"), 0 si invalide
+     */
+    private long parseDuration(String value) {
+        if (value.length() < 2) {
+            return 0;
+        }
+        long unit = switch (Character.toLowerCase(value.charAt(value.length() - 1))) {
+            case 'm' -> 60_000L;
+            case 'h' -> 3_600_000L;
+            case 'd' -> 86_400_000L;
+            case 'w' -> 604_800_000L;
+            default -> 0;
+        };
+        try {
+            return unit * Long.parseLong(value.substring(0, value.length() - 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void sendHelp(CommandSender sender) {
+        sender.sendMessage("§e=== Commandes Admin 2FA ===");
+        sender.sendMessage("§7/2fa-admin force-reset <joueur|uuid> §f- Réinitialise le 2FA d'un joueur");
+        sender.sendMessage("§7/2fa-admin check <joueur|uuid> §f- Vérifie le statut 2FA d'un joueur");
+        sender.sendMessage("§7/2fa-admin list [page] [--unauthenticated|--no-2fa-but-sensitive] §f- Liste les joueurs en ligne");
+        sender.sendMessage("§7/2fa-admin export <fichier> §f- Exporte les inscriptions 2FA (.csv/.ndjson, .gz)");
+        sender.sendMessage("§7/2fa-admin import <fichier> §f- Importe des inscriptions 2FA (.csv/.ndjson, .gz)");
+        sender.sendMessage("§7/2fa-admin metrics §f- Affiche les métriques internes du plugin");
+        sender.sendMessage("§7/2fa-admin timings §f- Affiche le temps passé dans chaque handler");
+        sender.sendMessage("§7/2fa-admin threats §f- Affiche les IP et sous-réseaux suspects");
+        sender.sendMessage("§7/2fa-admin history <joueur|ip> [--since <durée>] §f- Historique des authentifications");
+    }
+}
\ No newline at end of file
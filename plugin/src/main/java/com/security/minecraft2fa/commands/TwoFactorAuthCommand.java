@@ -5,6 +5,8 @@ import com.google.zxing.MultiFormatWriter;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.storage.PendingSetupStore;
+import com.security.minecraft2fa.utils.IoExecutor;
 import lombok.RequiredArgsConstructor;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
@@ -14,7 +16,6 @@ import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
 
 import java.io.File;
-import java.nio.file.Path;
 
 @RequiredArgsConstructor
 public class TwoFactorAuthCommand implements CommandExecutor {
@@ -84,19 +85,31 @@ public class TwoFactorAuthCommand implements CommandExecutor {
             return;
         }
 
-        if (plugin.getAuthManager().has2FAEnabled(target)) {
-            sender.sendMessage("§cCe joueur a déjà configuré l'authentification à deux facteurs!");
-            return;
-        }
+        plugin.getIoExecutor().supply(IoExecutor.Category.DATABASE, () -> plugin.getAuthManager().has2FAEnabled(target))
+            .thenAccept(enabled -> {
+                if (enabled) {
+                    sender.sendMessage("§cCe joueur a déjà configuré l'authentification à deux facteurs!");
+                    return;
+                }
+                PendingSetupStore.PendingSetup setup = plugin.getAuthManager().generateSecret(target);
+                plugin.getIoExecutor().run(IoExecutor.Category.FILE, () -> writeQrCode(sender, target, setup))
+                    .exceptionally(e -> reportFailure(sender, e));
+            })
+            .exceptionally(e -> reportFailure(sender, e));
+    }
 
-        String secret = plugin.getAuthManager().generateSecret(target);
-        
+    /**
+     * Génère le QR code sur disque et envoie les instructions (exécuté hors du thread principal)
+     */
+    private void writeQrCode(CommandSender sender, Player target, PendingSetupStore.PendingSetup setup) {
         // Création du dossier pour les QR codes s'il n'existe pas
         File qrFolder = new File(plugin.getDataFolder(), "qrcodes");
         if (!qrFolder.exists()) {
             qrFolder.mkdirs();
         }
 
+        String secret = setup.secret();
+        File qrFile = new File(qrFolder, target.getName() + "_qr.png");
         try {
             // Génération du QR code
             String otpAuthURL = String.format("otpauth://totp/%s?secret=%s&issuer=MinecraftServer",
@@ -108,9 +121,11 @@ public class TwoFactorAuthCommand implements CommandExecutor {
                     400
             );
 
-            // Sauvegarde du QR code
-            Path qrPath = new File(qrFolder, target.getName() + "_qr.png").toPath();
-            MatrixToImageWriter.writeToPath(matrix, "PNG", qrPath);
+            // Sauvegarde du QR code (déjà présent si la configuration en cours est reprise sur ce serveur)
+            if (!setup.qrGenerated() || !qrFile.exists()) {
+                MatrixToImageWriter.writeToPath(matrix, "PNG", qrFile.toPath());
+                plugin.getPendingSetupStore().markQrGenerated(target.getUniqueId());
+            }
 
             // Envoi des informations au joueur
             target.sendMessage("§e=== Configuration de l'authentification à deux facteurs ===");
@@ -130,9 +145,16 @@ public class TwoFactorAuthCommand implements CommandExecutor {
     }
 
     private void handleVerify(Player player, String codeStr) {
+        int code;
         try {
-            int code = Integer.parseInt(codeStr);
-            
+            code = Integer.parseInt(codeStr);
+        } catch (NumberFormatException e) {
+            player.sendMessage("§cLe code doit être un nombre!");
+            return;
+        }
+
+        // Vérification (base de données, Redis) hors du thread principal
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
             if (plugin.getAuthManager().has2FAEnabled(player)) {
                 if (plugin.getAuthManager().verifyCode(player, code)) {
                     player.sendMessage("§aAuthentification réussie!");
@@ -151,9 +173,7 @@ public class TwoFactorAuthCommand implements CommandExecutor {
                     player.sendMessage("§cCode invalide ou configuration non initiée!");
                 }
             }
-        } catch (NumberFormatException e) {
-            player.sendMessage("§cLe code doit être un nombre!");
-        }
+        }).exceptionally(e -> reportFailure(player, e));
     }
 
     private void handleDisable(CommandSender sender, String playerName) {
@@ -163,25 +183,39 @@ public class TwoFactorAuthCommand implements CommandExecutor {
             return;
         }
 
-        if (!plugin.getAuthManager().has2FAEnabled(target)) {
-            sender.sendMessage("§cCe joueur n'a pas activé l'authentification à deux facteurs!");
-            return;
-        }
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            if (!plugin.getAuthManager().has2FAEnabled(target)) {
+                sender.sendMessage("§cCe joueur n'a pas activé l'authentification à deux facteurs!");
+                return;
+            }
 
-        plugin.getAuthManager().disable2FA(target);
-        sender.sendMessage("§aL'authentification à deux facteurs a été désactivée pour " + target.getName());
-        target.sendMessage("§aVotre authentification à deux facteurs a été désactivée par un administrateur!");
+            plugin.getAuthManager().disable2FA(target);
+            sender.sendMessage("§aL'authentification à deux facteurs a été désactivée pour " + target.getName());
+            target.sendMessage("§aVotre authentification à deux facteurs a été désactivée par un administrateur!");
+        }).exceptionally(e -> reportFailure(sender, e));
     }
 
     private void handleStatus(Player player) {
-        boolean enabled = plugin.getAuthManager().has2FAEnabled(player);
-        boolean authenticated = plugin.getAuthManager().isAuthenticated(player);
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            boolean enabled = plugin.getAuthManager().has2FAEnabled(player);
+            boolean authenticated = plugin.getAuthManager().isAuthenticated(player);
+
+            player.sendMessage("§e=== Statut 2FA ===");
+            player.sendMessage("§7État: " + (enabled ? "§aActivé" : "§cDésactivé"));
+            if (enabled) {
+                player.sendMessage("§7Session: " + (authenticated ? "§aAuthentifié" : "§cNon authentifié"));
+            }
+        }).exceptionally(e -> reportFailure(player, e));
+    }
 
-        player.sendMessage("§e=== Statut 2FA ===");
-        player.sendMessage("§7État: " + (enabled ? "§aActivé" : "§cDésactivé"));
-        if (enabled) {
-            player.sendMessage("§7Session: " + (authenticated ? "§aAuthentifié" : "§cNon authentifié"));
-        }
+    /**
+     * Informe l'expéditeur qu'une opération en arrière-plan a échoué ou a été refusée (file saturée)
+     */
+    private Void reportFailure(CommandSender sender, Throwable error) {
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        sender.sendMessage("§cOpération impossible pour le moment, réessayez plus tard.");
+        plugin.getLogger().warning("Échec d'une opération 2FA en arrière-plan: " + cause.getMessage());
+        return null;
     }
 
     private void sendHelp(CommandSender sender) {
@@ -0,0 +1,227 @@
+package com.security.minecraft2fa.listeners;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.managers.LockManager;
+import com.security.minecraft2fa.utils.CommandAllowlist;
+import com.security.minecraft2fa.utils.HandlerTimings;
+import com.security.minecraft2fa.utils.IoExecutor;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDropItemEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryOpenEvent;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerCommandSendEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Handlers restrictifs appliqués aux joueurs bloqués.
+ *
+ * Enregistrés dynamiquement par le LockManager uniquement lorsqu'au moins un joueur est bloqué.
+ */
+@RequiredArgsConstructor
+public class LockedPlayerListener implements Listener {
+
+    private final Minecraft2FAPlugin plugin;
+    private final LockManager lockManager;
+    private volatile CommandAllowlist allowedCommands;
+    
+    // Inscription des joueurs bloqués, lue une fois par blocage ; au plus une lecture en cours par joueur
+    private final Map<UUID, Boolean> enrolment = new ConcurrentHashMap<>();
+    private final Set<UUID> lookups = ConcurrentHashMap.newKeySet();
+
+    public void register() {
+        // Recompilée à chaque enregistrement : prend en compte les commandes des plugins chargés après celui-ci
+        List<String> configured = plugin.getConfig().getStringList("security.allowed-commands");
+        allowedCommands = CommandAllowlist.compile(plugin.getServer(),
+            configured.isEmpty() ? List.of("2fa", "login", "register") : configured);
+        on(PlayerMoveEvent.class, "onPlayerMove", this::onPlayerMove);
+        on(BlockBreakEvent.class, "onBlockBreak", this::onBlockBreak);
+        on(BlockPlaceEvent.class, "onBlockPlace", this::onBlockPlace);
+        on(InventoryClickEvent.class, "onInventoryClick", this::onInventoryClick);
+        on(InventoryOpenEvent.class, "onInventoryOpen", this::onInventoryOpen);
+        on(EntityDropItemEvent.class, "onItemDrop", this::onItemDrop);
+        on(EntityPickupItemEvent.class, "onItemPickup", this::onItemPickup);
+        on(PlayerInteractEvent.class, "onPlayerInteract", this::onPlayerInteract);
+        on(PlayerCommandPreprocessEvent.class, "onPlayerCommand", this::onPlayerCommand);
+        on(PlayerCommandSendEvent.class, "onCommandSend", this::onCommandSend);
+        on(AsyncPlayerChatEvent.class, "onPlayerChat", this::onPlayerChat);
+    }
+
+    public void unregister() {
+        HandlerList.unregisterAll(this);
+    }
+
+    private <T extends Event> void on(Class<T> type, String name, Consumer<T> handler) {
+        HandlerTimings timings = plugin.getHandlerTimings();
+        plugin.getServer().getPluginManager().registerEvent(type, this, EventPriority.LOWEST, (listener, event) -> {
+            if (type.isInstance(event)) {
+                long start = timings.begin();
+                try {
+                    handler.accept(type.cast(event));
+                } finally {
+                    timings.end(name, start);
+                }
+            }
+        }, plugin);
+    }
+
+    public void onPlayerMove(PlayerMoveEvent event) {
+        // Annule uniquement les changements de bloc (permet la rotation)
+        if (event.getTo() == null || (
+            event.getFrom().getBlockX() == event.getTo().getBlockX()
+            && event.getFrom().getBlockY() == event.getTo().getBlockY()
+            && event.getFrom().getBlockZ() == event.getTo().getBlockZ())) {
+            return;
+        }
+
+        if (needsAuth(event.getPlayer())) {
+            // Joueur immobilisé : seule une sortie de la zone de l'ancre est corrigée
+            Location corrected = lockManager.getFreezeController().correct(event.getPlayer(), event.getFrom(), event.getTo());
+            if (corrected != null) {
+                event.setTo(corrected);
+                sendAuthMessage(event.getPlayer());
+            }
+        }
+    }
+
+    public void onBlockBreak(BlockBreakEvent event) {
+        if (needsAuth(event.getPlayer())) {
+            event.setCancelled(true);
+            sendAuthMessage(event.getPlayer());
+        }
+    }
+
+    public void onBlockPlace(BlockPlaceEvent event) {
+        if (needsAuth(event.getPlayer())) {
+            event.setCancelled(true);
+            sendAuthMessage(event.getPlayer());
+        }
+    }
+
+    public void onInventoryClick(InventoryClickEvent event) {
+        if (event.getWhoClicked() instanceof Player player && needsAuth(player)) {
+            event.setCancelled(true);
+            sendAuthMessage(player);
+        }
+    }
+
+    public void onInventoryOpen(InventoryOpenEvent event) {
+        if (event.getPlayer() instanceof Player player && needsAuth(player)) {
+            event.setCancelled(true);
+            sendAuthMessage(player);
+        }
+    }
+
+    public void onItemDrop(EntityDropItemEvent event) {
+        if (event.getEntity() instanceof Player player && needsAuth(player)) {
+            event.setCancelled(true);
+            sendAuthMessage(player);
+        }
+    }
+
+    public void onItemPickup(EntityPickupItemEvent event) {
+        if (event.getEntity() instanceof Player player && needsAuth(player)) {
+            event.setCancelled(true);
+            sendAuthMessage(player);
+        }
+    }
+
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        if (needsAuth(event.getPlayer())) {
+            event.setCancelled(true);
+            sendAuthMessage(event.getPlayer());
+        }
+    }
+
+    public void onPlayerCommand(PlayerCommandPreprocessEvent event) {
+        if (!needsAuth(event.getPlayer())) {
+            return;
+        }
+
+        if (!allowedCommands.allows(event.getMessage())) {
+            event.setCancelled(true);
+            sendAuthMessage(event.getPlayer());
+        }
+    }
+
+    public void onCommandSend(PlayerCommandSendEvent event) {
+        // Le joueur bloqué ne reçoit que les commandes autorisées ; l'arbre complet est renvoyé au déblocage
+        if (needsAuth(event.getPlayer())) {
+            event.getCommands().removeIf(label -> !allowedCommands.allowsLabel(label));
+        }
+    }
+
+    public void onPlayerChat(AsyncPlayerChatEvent event) {
+        if (needsAuth(event.getPlayer())) {
+            event.setCancelled(true);
+            sendAuthMessage(event.getPlayer());
+        }
+    }
+
+    /**
+     * Envoie le message d'authentification approprié au joueur
+     */
+    public void sendAuthMessage(Player player) {
+        UUID uuid = player.getUniqueId();
+        Boolean enrolled = enrolment.get(uuid);
+        if (enrolled != null) {
+            sendAuthMessage(player, enrolled);
+            return;
+        }
+        
+        // Une seule lecture en base par joueur à la fois : un joueur bloqué qui multiplie les actions
+        // ne peut pas saturer la file de la base au détriment des /2fa verify ; les messages d'ici là sont omis
+        if (!lookups.add(uuid)) {
+            return;
+        }
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            boolean value = plugin.getAuthManager().has2FAEnabled(player);
+            if (lockManager.isLocked(uuid)) {
+                enrolment.put(uuid, value);
+            }
+            sendAuthMessage(player, value);
+        }).whenComplete((result, error) -> lookups.remove(uuid));
+    }
+    
+    /**
+     * Oublie l'inscription mémorisée d'un joueur (blocage, déblocage ou réinitialisation)
+     */
+    public void forget(UUID uuid) {
+        enrolment.remove(uuid);
+    }
+    
+    private void sendAuthMessage(Player player, boolean enrolled) {
+        if (!enrolled) {
+            player.sendMessage(plugin.getConfig().getString("messages.setup-required",
+                "§cVous devez configurer l'authentification à deux facteurs!"));
+        } else {
+            player.sendMessage(plugin.getConfig().getString("messages.auth-required",
+                "§cVeuillez vous authentifier avec /2fa verify <code>"));
+        }
+    }
+
+    /**
+     * Vérifie si le joueur est bloqué en attente d'authentification
+     */
+    private boolean needsAuth(Player player) {
+        return lockManager.isLocked(player.getUniqueId());
+    }
+}
@@ -0,0 +1,118 @@
+package com.security.minecraft2fa.listeners;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.api.TwoFactorStateChangeEvent;
+import com.security.minecraft2fa.managers.PermissionRecheckScheduler;
+import com.security.minecraft2fa.storage.AuthEventStore;
+import lombok.RequiredArgsConstructor;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.event.EventBus;
+import net.luckperms.api.event.node.NodeMutateEvent;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.user.User;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+@RequiredArgsConstructor
+public class PlayerListener implements Listener {
+    
+    private final Minecraft2FAPlugin plugin;
+    
+    public void registerLuckPermsEvents() {
+        try {
+            LuckPerms luckPerms = Bukkit.getServicesManager().getRegistration(LuckPerms.class).getProvider();
+            EventBus eventBus = luckPerms.getEventBus();
+            
+            // Les changements sont regroupés : une seule revérification par joueur et par tick
+            PermissionRecheckScheduler rechecks = new PermissionRecheckScheduler(plugin, luckPerms,
+                player -> checkPermissionsAndAuthenticate(player, TwoFactorStateChangeEvent.Reason.PERMISSION_CHANGE));
+            
+            // Écoute l'ajout, la suppression et l'effacement de permissions (utilisateurs et groupes)
+            eventBus.subscribe(plugin, NodeMutateEvent.class, event -> {
+                long start = plugin.getHandlerTimings().begin();
+                if (event.getTarget() instanceof User user) {
+                    if (Bukkit.getPlayer(user.getUniqueId()) != null) {
+                        rechecks.requestUser(user.getUniqueId());
+                    }
+                } else if (event.getTarget() instanceof Group group) {
+                    rechecks.requestGroup(group);
+                }
+                plugin.getHandlerTimings().end("luckPermsNodeMutate", start);
+            });
+            
+            plugin.getLogger().info("Écouteurs LuckPerms enregistrés avec succès!");
+        } catch (Exception e) {
+            plugin.getLogger().severe("Erreur lors de l'enregistrement des écouteurs LuckPerms: " + e.getMessage());
+        }
+    }
+    
+    private void checkPermissionsAndAuthenticate(Player player, TwoFactorStateChangeEvent.Reason reason) {
+        long start = plugin.getHandlerTimings().begin();
+        if (plugin.getLockManager().refresh(player, reason)) {
+            // Force le joueur à s'authentifier (l'immobilisation est appliquée par le LockManager)
+            plugin.getLockManager().sendAuthMessage(player);
+        }
+        plugin.getHandlerTimings().end(reason == TwoFactorStateChangeEvent.Reason.JOIN ? "onPlayerJoin" : "luckPermsRecheck", start);
+    }
+    
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        // Retient la connexion tant que les stockages ne sont pas prêts (le joueur sera bloqué au-delà du délai)
+        long wait = plugin.getConfig().getLong("startup.login-wait", 10) * 1000L;
+        if (!plugin.getReadinessGate().await(wait)) {
+            plugin.getLogger().warning("Connexion de " + event.getName() + " acceptée avant la fin de l'initialisation des stockages");
+        }
+        
+        // Refuse les joueurs et IP bloqués avant la création du joueur (aucune requête en base)
+        long start = plugin.getHandlerTimings().begin();
+        long expiresAt = plugin.getLockoutManager().getLockoutExpiry(event.getUniqueId(), event.getAddress().getHostAddress());
+        if (expiresAt > 0) {
+            long minutes = Math.max(1, (expiresAt - System.currentTimeMillis() + 59999) / 60000);
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_BANNED, plugin.getAuthManager().getLockoutMessage(minutes));
+        } else if (plugin.getThreatDetector().checkLogin(event.getAddress()) > 0) {
+            // IP ou sous-réseau suspecté de credential stuffing : connexions ralenties
+            plugin.getAuthEventStore().record(AuthEventStore.Type.THROTTLE, event.getUniqueId(), event.getName(),
+                event.getAddress().getHostAddress(), null);
+            event.disallow(AsyncPlayerPreLoginEvent.Result.KICK_OTHER, plugin.getConfig().getString("messages.throttled",
+                "§cTrop de connexions depuis votre réseau, réessayez dans une minute.").replace("\\n", "\n"));
+        }
+        plugin.getHandlerTimings().end("onPreLogin", start);
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        if (plugin.getProxyHandoff() == null) {
+            checkPermissionsAndAuthenticate(player, TwoFactorStateChangeEvent.Reason.JOIN);
+            return;
+        }
+
+        // Le joueur est bloqué immédiatement ; seul le message attend le jeton du proxy, qui le débloque à son arrivée
+        long start = plugin.getHandlerTimings().begin();
+        if (plugin.getLockManager().refresh(player, TwoFactorStateChangeEvent.Reason.JOIN)) {
+            long delay = plugin.getConfig().getLong("proxy.handoff-wait-ticks", 10);
+            Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                if (player.isOnline() && plugin.getLockManager().isLocked(player.getUniqueId())) {
+                    plugin.getLockManager().sendAuthMessage(player);
+                }
+            }, delay);
+        }
+        plugin.getHandlerTimings().end("onPlayerJoin", start);
+    }
+    
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        // Nettoie la session si le joueur se déconnecte
+        long start = plugin.getHandlerTimings().begin();
+        plugin.getAuthManager().logout(event.getPlayer());
+        plugin.getLockManager().remove(event.getPlayer());
+        plugin.getDatabaseManager().evictSecretKey(event.getPlayer().getUniqueId());
+        plugin.getHandlerTimings().end("onPlayerQuit", start);
+    }
+}
@@ -0,0 +1,93 @@
+package com.security.minecraft2fa.listeners;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.api.TwoFactorStateChangeEvent;
+import com.security.minecraft2fa.utils.SessionToken;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.messaging.PluginMessageListener;
+
+import java.util.UUID;
+
+/**
+ * Échange des sessions 2FA avec le module proxy (BungeeCord).
+ *
+ * Le serveur annonce au proxy chaque authentification réussie ; lors d'un changement de serveur,
+ * le proxy renvoie un jeton signé que ce listener valide localement, sans Redis ni base de données.
+ */
+public class ProxyHandoffListener implements PluginMessageListener {
+
+    // Tolérance sur l'âge d'un jeton (décalage d'horloge et latence réseau compris)
+    private static final long MAX_TOKEN_AGE = 30000;
+
+    private final Minecraft2FAPlugin plugin;
+    private final byte[] secret;
+
+    public ProxyHandoffListener(Minecraft2FAPlugin plugin, String secret) {
+        this.plugin = plugin;
+        this.secret = SessionToken.secretBytes(secret);
+    }
+
+    public void register() {
+        plugin.getServer().getMessenger().registerOutgoingPluginChannel(plugin, SessionToken.CHANNEL);
+        plugin.getServer().getMessenger().registerIncomingPluginChannel(plugin, SessionToken.CHANNEL, this);
+    }
+
+    public void unregister() {
+        plugin.getServer().getMessenger().unregisterOutgoingPluginChannel(plugin, SessionToken.CHANNEL);
+        plugin.getServer().getMessenger().unregisterIncomingPluginChannel(plugin, SessionToken.CHANNEL, this);
+    }
+
+    @Override
+    public void onPluginMessageReceived(String channel, Player player, byte[] message) {
+        if (!SessionToken.CHANNEL.equals(channel)) {
+            return;
+        }
+
+        SessionToken.Payload payload = SessionToken.decode(message, secret);
+        if (payload == null || payload.type() != SessionToken.TYPE_AUTH) {
+            plugin.getLogger().warning("Jeton de session proxy invalide reçu pour " + player.getName());
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String ip = player.getAddress().getAddress().getHostAddress();
+        if (!payload.uuid().equals(player.getUniqueId())
+                || !payload.ip().equals(ip)
+                || payload.expiresAt() <= now
+                || Math.abs(now - payload.issuedAt()) > MAX_TOKEN_AGE) {
+            plugin.getLogger().warning("Jeton de session proxy refusé pour " + player.getName());
+            return;
+        }
+
+        plugin.getSessionManager().cacheSession(player.getUniqueId(), ip, payload.expiresAt());
+        // Le joueur a été bloqué à la connexion en attendant le jeton : la session transmise le débloque
+        if (plugin.getLockManager().isLocked(player.getUniqueId())) {
+            plugin.getLockManager().refresh(player, TwoFactorStateChangeEvent.Reason.JOIN);
+        }
+    }
+
+    /**
+     * Annonce au proxy une authentification réussie
+     */
+    public void sendAuthenticated(Player player, String ip, long expiresAt) {
+        send(player, SessionToken.TYPE_AUTH, player.getUniqueId(), ip, expiresAt);
+    }
+
+    /**
+     * Demande au proxy d'oublier la session d'un joueur
+     */
+    public void sendRevoked(Player player) {
+        String ip = player.getAddress().getAddress().getHostAddress();
+        send(player, SessionToken.TYPE_REVOKE, player.getUniqueId(), ip, 0L);
+    }
+
+    private void send(Player player, byte type, UUID uuid, String ip, long expiresAt) {
+        try {
+            byte[] token = SessionToken.encode(
+                new SessionToken.Payload(type, uuid, ip, expiresAt, System.currentTimeMillis()), secret);
+            player.sendPluginMessage(plugin, SessionToken.CHANNEL, token);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Impossible d'envoyer la session 2FA au proxy pour " + player.getName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package com.security.minecraft2fa.managers;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.api.TwoFactorStateChangeEvent;
+import com.security.minecraft2fa.storage.AuthEventStore;
+import com.security.minecraft2fa.storage.PendingSetupStore;
+import com.security.minecraft2fa.utils.DiscordWebhook;
+import com.security.minecraft2fa.utils.IoExecutor;
+import com.warrenstrange.googleauth.GoogleAuthenticator;
+import com.warrenstrange.googleauth.GoogleAuthenticatorKey;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.net.InetSocketAddress;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@RequiredArgsConstructor
+public class AuthManager {
+    
+    private final Minecraft2FAPlugin plugin;
+    private final GoogleAuthenticator gAuth = new GoogleAuthenticator();
+    
+    // Paramètres TOTP par défaut de GoogleAuthenticator : pas de 30 secondes, tolérance d'un pas de chaque côté
+    private static final long TIME_STEP_MILLIS = 30000;
+    private static final int STEP_TOLERANCE = 1;
+    private final Map<UUID, Long> authenticatedSessions = new ConcurrentHashMap<>();
+    // Modifiés depuis les threads d'E/S : uniquement par opérations atomiques
+    private final ConcurrentMap<UUID, Integer> failedAttempts = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Long> lastAttemptTime = new ConcurrentHashMap<>();
+    private DiscordWebhook webhook;
+    
+    /**
+     * Initialise le webhook Discord si activé
+     */
+    public void initializeWebhook() {
+        if (plugin.getConfig().getBoolean("discord.enabled", false)) {
+            String webhookUrl = plugin.getConfig().getString("discord.webhook-url", "");
+            if (!webhookUrl.isEmpty()) {
+                webhook = new DiscordWebhook(webhookUrl);
+            }
+        }
+    }
+    
+    /**
+     * Génère une nouvelle clé secrète pour un joueur (ou reprend sa configuration en cours)
+     */
+    public PendingSetupStore.PendingSetup generateSecret(Player player) {
+        // Vérifie si le joueur n'a pas déjà une configuration en cours
+        PendingSetupStore.PendingSetup pending = plugin.getPendingSetupStore().get(player.getUniqueId());
+        if (pending != null) {
+            return pending;
+        }
+        
+        GoogleAuthenticatorKey key = gAuth.createCredentials();
+        pending = plugin.getPendingSetupStore().create(player.getUniqueId(), key.getKey());
+        
+        // Log la génération de la clé
+        plugin.getLogger().info("Nouvelle clé 2FA générée pour " + player.getName());
+        
+        return pending;
+    }
+    
+    /**
+     * Vérifie si le code 2FA est valide
+     */
+    public boolean verifyCode(Player player, int code) {
+        plugin.getLogger().info("Vérification du code 2FA pour " + player.getName() + " (code: " + code + ")");
+        
+        // Vérifie le délai entre les tentatives (anti-bruteforce)
+        long cooldown = plugin.getConfig().getLong("security.attempt-cooldown", 2000); // 2 secondes par défaut
+        if (!claimAttempt(player.getUniqueId(), System.currentTimeMillis(), cooldown)) {
+            player.sendMessage(plugin.getConfig().getString("messages.cooldown", "§cVeuillez attendre avant de réessayer."));
+            return false;
+        }
+        
+        String secretKey = plugin.getDatabaseManager().getSecretKey(player.getUniqueId());
+        if (secretKey == null) {
+            plugin.getLogger().warning("Aucune clé secrète trouvée pour " + player.getName());
+            return false;
+        }
+        
+        // Vérifie si le code n'est pas un code évident
+        if (isObviousCode(code)) {
+            plugin.getLogger().warning(player.getName() + " a tenté d'utiliser un code évident: " + code);
+            handleFailedAttempt(player, code);
+            return false;
+        }
+        
+        long step = matchTimeStep(secretKey, code);
+        boolean isValid = step >= 0;
+        
+        if (isValid && !claimTimeStep(player, step)) {
+            return false;
+        }
+        
+        if (!isValid) {
+            plugin.getLogger().warning("Code 2FA invalide pour " + player.getName() + " (code: " + code + ")");
+            handleFailedAttempt(player, code);
+        } else {
+            // Reset le compteur en cas de succès et sauvegarde l'IP
+            plugin.getLogger().info("Code 2FA valide pour " + player.getName());
+            failedAttempts.remove(player.getUniqueId());
+            String ip = player.getAddress().getAddress().getHostAddress();
+            plugin.getSessionManager().setSession(player.getUniqueId(), ip);
+            announceSessionToProxy(player, ip);
+            plugin.getLockManager().markAuthenticated(player, TwoFactorStateChangeEvent.Reason.VERIFY);
+            recordEvent(AuthEventStore.Type.VERIFY, player, null);
+            player.sendMessage(plugin.getConfig().getString("messages.auth-success", "§aAuthentification réussie!"));
+            plugin.getLogger().info(player.getName() + " s'est authentifié avec succès via 2FA (IP: " + ip + ")");
+        }
+        
+        return isValid;
+    }
+    
+    /**
+     * Réserve le créneau de tentative du joueur ; atomique, les vérifications s'exécutant en parallèle
+     * sur les threads d'E/S
+     */
+    private boolean claimAttempt(UUID uuid, long now, long cooldown) {
+        while (true) {
+            Long last = lastAttemptTime.putIfAbsent(uuid, now);
+            if (last == null) {
+                return true;
+            }
+            if (now - last < cooldown) {
+                return false;
+            }
+            if (lastAttemptTime.replace(uuid, last, now)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Gère une tentative d'authentification échouée
+     */
+    private void handleFailedAttempt(Player player, int code) {
+        // Incrémente le compteur d'échecs (atomique)
+        int attempts = failedAttempts.merge(player.getUniqueId(), 1, Integer::sum);
+        plugin.getThreatDetector().recordFailure(player.getAddress().getAddress(), player.getUniqueId());
+        
+        // Envoie l'alerte Discord
+        sendWebhookAlert(player, code);
+
+        // Vérifie si le joueur doit être banni
+        int maxAttempts = plugin.getConfig().getInt("security.max-attempts", 3);
+        recordEvent(AuthEventStore.Type.FAILURE, player, "tentative " + attempts + "/" + maxAttempts);
+        if (attempts >= maxAttempts) {
+            // Bloque le joueur et son IP : les reconnexions sont refusées dès la pré-connexion
+            int banMinutes = plugin.getConfig().getInt("security.lockout-duration", 5);
+            String ip = player.getAddress().getAddress().getHostAddress();
+            plugin.getLockoutManager().lockout(player.getUniqueId(), ip, banMinutes * 60 * 1000L);
+            recordEvent(AuthEventStore.Type.LOCKOUT, player, banMinutes + " min");
+            
+            // Kick le joueur sur le thread principal
+            String message = getLockoutMessage(banMinutes);
+            runOnMainThread(() -> player.kickPlayer(message));
+            
+            // Reset le compteur
+            failedAttempts.remove(player.getUniqueId());
+            
+            plugin.getLogger().warning(player.getName() + " a été bloqué temporairement après " + attempts + " tentatives échouées");
+        } else {
+            player.sendMessage("§cCode invalide! Tentative " + attempts + "/" + maxAttempts);
+            plugin.getLogger().warning(player.getName() + " a échoué la tentative d'authentification " + attempts + "/" + maxAttempts);
+        }
+    }
+    
+    /**
+     * Message affiché à un joueur bloqué
+     */
+    public String getLockoutMessage(long minutes) {
+        return plugin.getConfig().getString("messages.ban-message",
+                "§cTrop de tentatives d'authentification échouées.\\n§7Réessayez dans %minutes% minutes.")
+            .replace("\\n", "\n")
+            .replace("%minutes%", Long.toString(minutes));
+    }
+    
+    private void runOnMainThread(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+    
+    /**
+     * Envoie l'alerte Discord hors du thread appelant
+     */
+    private void sendWebhookAlert(Player player, int code) {
+        if (webhook == null) {
+            return;
+        }
+        String name = player.getName();
+        String ip = player.getAddress().getAddress().getHostAddress();
+        plugin.getIoExecutor().run(IoExecutor.Category.HTTP, () -> webhook.sendAlert(name, ip, code));
+    }
+    
+    /**
+     * Annonce la session au module proxy pour les prochains changements de serveur
+     */
+    private void announceSessionToProxy(Player player, String ip) {
+        if (plugin.getProxyHandoff() != null) {
+            plugin.getProxyHandoff().sendAuthenticated(player, ip, plugin.getSessionManager().newSessionExpiresAt());
+        }
+    }
+    
+    /**
+     * Retourne le pas de temps correspondant au code dans la fenêtre de tolérance, -1 si le code est invalide
+     */
+    private long matchTimeStep(String secret, int code) {
+        long current = System.currentTimeMillis() / TIME_STEP_MILLIS;
+        for (long step = current - STEP_TOLERANCE; step <= current + STEP_TOLERANCE; step++) {
+            if (gAuth.getTotpPassword(secret, step * TIME_STEP_MILLIS) == code) {
+                return step;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Réserve le pas de temps d'un code valide : un même code n'est accepté qu'une fois, sur tous les serveurs
+     */
+    private boolean claimTimeStep(Player player, long step) {
+        if (plugin.getReplayGuard().claim(player.getUniqueId(), step)) {
+            return true;
+        }
+        plugin.getLogger().warning("Code 2FA déjà utilisé refusé pour " + player.getName());
+        player.sendMessage(plugin.getConfig().getString("messages.code-already-used", "§cCe code a déjà été utilisé, attendez le suivant."));
+        return false;
+    }
+    
+    /**
+     * Vérifie si un code est trop évident (anti-bruteforce simple)
+     */
+    private boolean isObviousCode(int code) {
+        String codeStr = String.format("%06d", code);
+        // Vérifie les codes évidents comme 000000, 123456, etc.
+        return codeStr.matches("0{6}|1{6}|2{6}|3{6}|4{6}|5{6}|6{6}|7{6}|8{6}|9{6}|12345.|123123|111111|222222|333333|444444|555555|666666|777777|888888|999999");
+    }
+    
+    /**
+     * Vérifie si un joueur est authentifié
+     */
+    public boolean isAuthenticated(Player player) {
+        String currentIp = player.getAddress().getAddress().getHostAddress();
+        return isAuthenticated(player.getUniqueId(), currentIp);
+    }
+    
+    /**
+     * Finalise la configuration 2FA pour un joueur
+     */
+    public boolean finalizeSetup(Player player, int code) {
+        plugin.getLogger().info("Finalisation de la configuration 2FA pour " + player.getName());
+        
+        PendingSetupStore.PendingSetup pending = plugin.getPendingSetupStore().get(player.getUniqueId());
+        if (pending == null) {
+            plugin.getLogger().warning("Tentative de finalisation 2FA pour " + player.getName() + " sans configuration préalable");
+            return false;
+        }
+        
+        long step = matchTimeStep(pending.secret(), code);
+        if (step >= 0) {
+            if (!claimTimeStep(player, step)) {
+                return false;
+            }
+            
+            plugin.getLogger().info("Code valide, enregistrement de la configuration pour " + player.getName());
+            plugin.getDatabaseManager().setSecretKey(player.getUniqueId(), pending.secret());
+            plugin.getPendingSetupStore().remove(player.getUniqueId());
+            
+            // Enregistre la session après une configuration réussie
+            String ip = player.getAddress().getAddress().getHostAddress();
+            plugin.getSessionManager().setSession(player.getUniqueId(), ip);
+            announceSessionToProxy(player, ip);
+            plugin.getLockManager().markAuthenticated(player, TwoFactorStateChangeEvent.Reason.SETUP);
+            recordEvent(AuthEventStore.Type.SETUP, player, null);
+            
+            player.sendMessage(plugin.getConfig().getString("messages.setup-success", "§aConfiguration 2FA terminée avec succès!"));
+            plugin.getLogger().info("Configuration 2FA terminée avec succès pour " + player.getName());
+            
+            return true;
+        } else {
+            plugin.getLogger().warning("Échec de la configuration 2FA pour " + player.getName() + " (code invalide: " + code + ")");
+            plugin.getThreatDetector().recordFailure(player.getAddress().getAddress(), player.getUniqueId());
+            recordEvent(AuthEventStore.Type.SETUP_FAILURE, player, null);
+            // Envoie une alerte Discord pour l'échec de configuration
+            sendWebhookAlert(player, code);
+        }
+        return false;
+    }
+    
+    /**
+     * Désactive le 2FA pour un joueur
+     */
+    public void disable2FA(Player player) {
+        // Supprime la clé secrète de la base de données
+        plugin.getDatabaseManager().removeSecretKey(player.getUniqueId());
+        recordEvent(AuthEventStore.Type.RESET, player, null);
+        
+        // Nettoie toutes les sessions
+        plugin.getSessionManager().removeSession(player.getUniqueId());
+        if (plugin.getProxyHandoff() != null && player.isOnline()) {
+            plugin.getProxyHandoff().sendRevoked(player);
+        }
+        authenticatedSessions.remove(player.getUniqueId());
+        plugin.getPendingSetupStore().remove(player.getUniqueId());
+        plugin.getReplayGuard().forget(player.getUniqueId());
+        failedAttempts.remove(player.getUniqueId());
+        lastAttemptTime.remove(player.getUniqueId());
+        
+        // Force la vérification des permissions (sur le thread principal, la méthode pouvant être appelée en arrière-plan)
+        runOnMainThread(() -> {
+            if (player.isOnline()) {
+                Player onlinePlayer = player.getPlayer();
+                // Si le joueur a des permissions sensibles, on le bloque
+                if (onlinePlayer != null && plugin.getLockManager().refresh(onlinePlayer, TwoFactorStateChangeEvent.Reason.RESET)) {
+                    onlinePlayer.sendMessage(plugin.getConfig().getString("messages.setup-required", 
+                        "§cVous devez configurer l'authentification à deux facteurs!"));
+                }
+            }
+        });
+        
+        plugin.getLogger().info("2FA désactivé pour " + player.getName() + " - Sessions nettoyées");
+    }
+    
+    /**
+     * Désactive le 2FA d'un joueur hors ligne (ou identifié par son UUID)
+     */
+    public void disable2FA(UUID uuid) {
+        plugin.getDatabaseManager().removeSecretKey(uuid);
+        plugin.getAuthEventStore().record(AuthEventStore.Type.RESET, uuid, null, null, null);
+        plugin.getLockoutManager().clear(uuid);
+        plugin.getSessionManager().removeSession(uuid);
+        authenticatedSessions.remove(uuid);
+        plugin.getPendingSetupStore().remove(uuid);
+        plugin.getReplayGuard().forget(uuid);
+        failedAttempts.remove(uuid);
+        lastAttemptTime.remove(uuid);
+        
+        // Le joueur peut être en ligne s'il a été désigné par son UUID
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            Player online = Bukkit.getPlayer(uuid);
+            if (online != null) {
+                plugin.getLockManager().refresh(online, TwoFactorStateChangeEvent.Reason.RESET);
+            }
+        });
+        
+        plugin.getLogger().info("2FA désactivé pour " + uuid + " - Sessions nettoyées");
+    }
+    
+    /**
+     * Vérifie si le joueur a des permissions nécessitant le 2FA
+     */
+    public boolean requiresAuth(Player player) {
+        List<String> sensitivePermissions = plugin.getConfig().getStringList("sensitive-permissions");
+        for (String permission : sensitivePermissions) {
+            if (player.hasPermission(permission)) {
+                plugin.getLogger().fine("Le joueur " + player.getName() + " a la permission sensible: " + permission);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Vérifie si une IP fait partie des IP de confiance de la session d'un joueur
+     */
+    public boolean isAuthenticated(UUID uuid, String currentIp) {
+        return plugin.getSessionManager().hasSession(uuid, currentIp);
+    }
+    
+    /**
+     * Vérifie si un joueur a le 2FA activé
+     */
+    public boolean has2FAEnabled(Player player) {
+        return plugin.getDatabaseManager().hasSecretKey(player.getUniqueId());
+    }
+    
+    /**
+     * Ajoute un événement à l'historique d'authentification
+     */
+    private void recordEvent(AuthEventStore.Type type, Player player, String detail) {
+        InetSocketAddress address = player.getAddress();
+        plugin.getAuthEventStore().record(type, player.getUniqueId(), player.getName(),
+            address != null ? address.getAddress().getHostAddress() : null, detail);
+    }
+    
+    /**
+     * Déconnecte un joueur de sa session 2FA
+     */
+    public void logout(Player player) {
+        authenticatedSessions.remove(player.getUniqueId());
+        plugin.getLogger().info(player.getName() + " a été déconnecté de sa session 2FA");
+    }
+} 
\ No newline at end of file
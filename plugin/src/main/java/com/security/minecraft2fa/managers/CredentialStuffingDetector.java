@@ -0,0 +1,377 @@
+package com.security.minecraft2fa.managers;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Détection en flux des tentatives de credential stuffing : une même IP ou un même sous-réseau
+ * (/24 en IPv4, /64 en IPv6) qui échoue des codes 2FA sur plusieurs comptes.
+ *
+ * Chaque source est suivie dans une table de taille fixe : compteur d'échecs sur fenêtre glissante
+ * (seaux circulaires) et estimation HyperLogLog du nombre de comptes distincts visés (deux générations
+ * de registres, la fenêtre courante et la précédente). Aucune allocation par échec enregistré ; quand
+ * la table est pleine, la source inactive depuis le plus longtemps est remplacée. Une source qui
+ * dépasse un seuil est ralentie : une seule connexion acceptée par intervalle pendant la durée fixée.
+ */
+public class CredentialStuffingDetector {
+
+    private static final int BUCKETS = 10;
+    private static final int REGISTERS = 64;
+    private static final int MAX_PROBES = 8;
+    // Partie haute de la clé des adresses IPv4 (jamais utilisée par une adresse IPv6 unicast)
+    private static final long IPV4 = -1L;
+
+    /**
+     * État d'une source, pour /2fa-admin threats
+     */
+    public record SourceState(String source, int failures, int accounts, long throttledUntil) {}
+
+    private final Minecraft2FAPlugin plugin;
+    private final boolean enabled;
+    private final long bucketMillis;
+    private final long windowMillis;
+    private final long throttleMillis;
+    private final long throttleIntervalMillis;
+    private final Table ips;
+    private final Table subnets;
+
+    public CredentialStuffingDetector(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getConfig().getBoolean("threats.enabled", true);
+        long window = Math.max(BUCKETS, plugin.getConfig().getLong("threats.window-seconds", 300)) * 1000L;
+        this.bucketMillis = window / BUCKETS;
+        this.windowMillis = bucketMillis * BUCKETS;
+        this.throttleMillis = Math.max(1, plugin.getConfig().getLong("threats.throttle-seconds", 900)) * 1000L;
+        this.throttleIntervalMillis = Math.max(1, plugin.getConfig().getLong("threats.throttle-interval-seconds", 60)) * 1000L;
+        int size = Integer.highestOneBit(Math.max(MAX_PROBES, plugin.getConfig().getInt("threats.table-size", 1024)) * 2 - 1);
+        this.ips = new Table("ip", size,
+            plugin.getConfig().getInt("threats.ip.max-failures", 15),
+            plugin.getConfig().getInt("threats.ip.max-accounts", 3));
+        this.subnets = new Table("subnet", size,
+            plugin.getConfig().getInt("threats.subnet.max-failures", 40),
+            plugin.getConfig().getInt("threats.subnet.max-accounts", 6));
+    }
+
+    /**
+     * Enregistre un code 2FA refusé pour le compte depuis l'adresse donnée
+     */
+    public void recordFailure(InetAddress address, UUID account) {
+        if (!enabled || address == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long hash = mix(account.getMostSignificantBits() ^ Long.rotateLeft(account.getLeastSignificantBits(), 32));
+
+        synchronized (this) {
+            if (address instanceof Inet4Address) {
+                // hashCode() d'une Inet4Address est l'adresse elle-même : aucune copie du tableau d'octets
+                long ip = address.hashCode() & 0xFFFFFFFFL;
+                ips.record(IPV4, ip, hash, now);
+                subnets.record(IPV4, ip >>> 8, hash, now);
+            } else {
+                byte[] bytes = address.getAddress();
+                long high = toLong(bytes, 0);
+                ips.record(high, toLong(bytes, 8), hash, now);
+                subnets.record(high, 0, hash, now);
+            }
+        }
+    }
+
+    /**
+     * Vérifie une connexion : retourne la fin du ralentissement si elle doit être refusée, 0 sinon
+     */
+    public long checkLogin(InetAddress address) {
+        if (!enabled || address == null) {
+            return 0;
+        }
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            int ipSlot;
+            int subnetSlot;
+            if (address instanceof Inet4Address) {
+                long ip = address.hashCode() & 0xFFFFFFFFL;
+                ipSlot = ips.find(IPV4, ip);
+                subnetSlot = subnets.find(IPV4, ip >>> 8);
+            } else {
+                byte[] bytes = address.getAddress();
+                long high = toLong(bytes, 0);
+                ipSlot = ips.find(high, toLong(bytes, 8));
+                subnetSlot = subnets.find(high, 0);
+            }
+            long until = Math.max(ips.throttledUntil(ipSlot, now), subnets.throttledUntil(subnetSlot, now));
+            if (until == 0) {
+                return 0;
+            }
+            // Une connexion par intervalle reste acceptée, pour ne pas exclure les joueurs légitimes du sous-réseau
+            long lastAdmitted = Math.max(ips.lastAdmitted(ipSlot), subnets.lastAdmitted(subnetSlot));
+            if (now - lastAdmitted < throttleIntervalMillis) {
+                return until;
+            }
+            ips.admit(ipSlot, now);
+            subnets.admit(subnetSlot, now);
+            return 0;
+        }
+    }
+
+    /**
+     * Sources actives ou ralenties, les plus suspectes en premier
+     */
+    public synchronized List<SourceState> getThreats() {
+        long now = System.currentTimeMillis();
+        List<SourceState> states = new ArrayList<>();
+        ips.collect(states, now);
+        subnets.collect(states, now);
+        states.sort((a, b) -> a.throttledUntil() > now != b.throttledUntil() > now
+            ? (a.throttledUntil() > now ? -1 : 1)
+            : Integer.compare(b.accounts() * 1000 + b.failures(), a.accounts() * 1000 + a.failures()));
+        return states;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Table à adressage ouvert, tous les champs dans des tableaux parallèles alloués une fois
+     */
+    private final class Table {
+
+        private final String kind;
+        private final int mask;
+        private final int maxFailures;
+        private final int maxAccounts;
+        private final long[] keyHigh;
+        private final long[] keyLow;
+        private final long[] lastSeen;
+        private final long[] headBucket;
+        private final int[] counts;
+        private final long[] generation;
+        private final byte[] registers;
+        private final long[] throttledUntil;
+        private final long[] lastAdmitted;
+
+        Table(String kind, int size, int maxFailures, int maxAccounts) {
+            this.kind = kind;
+            this.mask = size - 1;
+            this.maxFailures = maxFailures;
+            this.maxAccounts = maxAccounts;
+            this.keyHigh = new long[size];
+            this.keyLow = new long[size];
+            this.lastSeen = new long[size];
+            this.headBucket = new long[size];
+            this.counts = new int[size * BUCKETS];
+            this.generation = new long[size];
+            // Par entrée : registres de la génération courante puis de la précédente
+            this.registers = new byte[size * REGISTERS * 2];
+            this.throttledUntil = new long[size];
+            this.lastAdmitted = new long[size];
+        }
+
+        /**
+         * Emplacement de la source, -1 si elle n'est pas suivie
+         */
+        int find(long high, long low) {
+            int start = (int) mix(high * 31 + low) & mask;
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (start + i) & mask;
+                if (lastSeen[slot] != 0 && keyHigh[slot] == high && keyLow[slot] == low) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        void record(long high, long low, long accountHash, long now) {
+            int slot = find(high, low);
+            if (slot < 0) {
+                slot = claim(high, low);
+            }
+            lastSeen[slot] = now;
+
+            // Compteur glissant : les seaux sortis de la fenêtre sont remis à zéro
+            long bucket = now / bucketMillis;
+            int base = slot * BUCKETS;
+            long elapsed = bucket - headBucket[slot];
+            if (elapsed > 0) {
+                for (long b = headBucket[slot] + 1; b <= bucket && b <= headBucket[slot] + BUCKETS; b++) {
+                    counts[base + (int) (b % BUCKETS)] = 0;
+                }
+                headBucket[slot] = bucket;
+            }
+            counts[base + (int) (bucket % BUCKETS)]++;
+
+            // HyperLogLog : 6 bits de poids fort pour le registre, rang du premier bit à 1 dans le reste
+            rotate(slot, now / windowMillis);
+            int register = slot * REGISTERS * 2 + (int) (accountHash >>> 58);
+            byte rank = (byte) (Long.numberOfLeadingZeros((accountHash << 6) | (1L << 5)) + 1);
+            if (registers[register] < rank) {
+                registers[register] = rank;
+            }
+
+            int failures = failures(slot, now);
+            int accounts = accounts(slot);
+            if ((failures >= maxFailures || accounts >= maxAccounts) && throttledUntil[slot] <= now) {
+                throttledUntil[slot] = now + throttleMillis;
+                plugin.getLogger().warning("Credential stuffing suspecté depuis " + describe(slot) + " : "
+                    + failures + " échecs sur " + accounts + " compte(s), connexions ralenties pendant "
+                    + throttleMillis / 1000 + " secondes");
+            }
+        }
+
+        /**
+         * Prend un emplacement libre, ou le moins récemment actif parmi ceux sondés (hors sources ralenties)
+         */
+        private int claim(long high, long low) {
+            int start = (int) mix(high * 31 + low) & mask;
+            int victim = start;
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (start + i) & mask;
+                if (lastSeen[slot] == 0) {
+                    victim = slot;
+                    break;
+                }
+                long score = lastSeen[slot] + (throttledUntil[slot] > lastSeen[slot] ? throttleMillis : 0);
+                long victimScore = lastSeen[victim] + (throttledUntil[victim] > lastSeen[victim] ? throttleMillis : 0);
+                if (score < victimScore) {
+                    victim = slot;
+                }
+            }
+
+            keyHigh[victim] = high;
+            keyLow[victim] = low;
+            headBucket[victim] = 0;
+            Arrays.fill(counts, victim * BUCKETS, (victim + 1) * BUCKETS, 0);
+            generation[victim] = 0;
+            Arrays.fill(registers, victim * REGISTERS * 2, (victim + 1) * REGISTERS * 2, (byte) 0);
+            throttledUntil[victim] = 0;
+            lastAdmitted[victim] = 0;
+            return victim;
+        }
+
+        /**
+         * Passe à une nouvelle génération de registres quand la fenêtre change
+         */
+        private void rotate(int slot, long current) {
+            long elapsed = current - generation[slot];
+            if (elapsed == 0) {
+                return;
+            }
+            int base = slot * REGISTERS * 2;
+            if (elapsed == 1) {
+                System.arraycopy(registers, base, registers, base + REGISTERS, REGISTERS);
+            } else {
+                Arrays.fill(registers, base + REGISTERS, base + REGISTERS * 2, (byte) 0);
+            }
+            Arrays.fill(registers, base, base + REGISTERS, (byte) 0);
+            generation[slot] = current;
+        }
+
+        int failures(int slot, long now) {
+            long bucket = now / bucketMillis;
+            if (bucket - headBucket[slot] >= BUCKETS) {
+                return 0;
+            }
+            int total = 0;
+            // Seuls les seaux encore dans la fenêtre sont comptés
+            for (long b = bucket - BUCKETS + 1; b <= headBucket[slot]; b++) {
+                total += counts[slot * BUCKETS + (int) (b % BUCKETS)];
+            }
+            return total;
+        }
+
+        /**
+         * Estimation du nombre de comptes distincts sur les deux dernières générations
+         */
+        int accounts(int slot) {
+            int base = slot * REGISTERS * 2;
+            double sum = 0;
+            int zeros = 0;
+            for (int i = 0; i < REGISTERS; i++) {
+                int value = Math.max(registers[base + i], registers[base + REGISTERS + i]);
+                sum += Math.scalb(1.0, -value);
+                if (value == 0) {
+                    zeros++;
+                }
+            }
+            double estimate = 0.709 * REGISTERS * REGISTERS / sum;
+            if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+                // Correction des petites cardinalités (comptage linéaire)
+                estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+            }
+            return (int) Math.round(estimate);
+        }
+
+        long throttledUntil(int slot, long now) {
+            return slot >= 0 && throttledUntil[slot] > now ? throttledUntil[slot] : 0;
+        }
+
+        long lastAdmitted(int slot) {
+            return slot >= 0 ? lastAdmitted[slot] : 0;
+        }
+
+        void admit(int slot, long now) {
+            if (slot >= 0) {
+                lastAdmitted[slot] = now;
+            }
+        }
+
+        void collect(List<SourceState> states, long now) {
+            for (int slot = 0; slot <= mask; slot++) {
+                if (lastSeen[slot] == 0) {
+                    continue;
+                }
+                int failures = failures(slot, now);
+                long until = throttledUntil(slot, now);
+                if (failures > 0 || until > 0) {
+                    // Les comptes ne sont estimés que pour les générations encore actives
+                    int accounts = now / windowMillis - generation[slot] > 1 ? 0 : accounts(slot);
+                    states.add(new SourceState(describe(slot), failures, accounts, until));
+                }
+            }
+        }
+
+        private String describe(int slot) {
+            boolean subnet = kind.equals("subnet");
+            if (keyHigh[slot] == IPV4) {
+                long ip = subnet ? keyLow[slot] << 8 : keyLow[slot];
+                return (ip >>> 24 & 0xFF) + "." + (ip >>> 16 & 0xFF) + "." + (ip >>> 8 & 0xFF) + "." + (ip & 0xFF)
+                    + (subnet ? "/24" : "");
+            }
+            byte[] bytes = new byte[16];
+            for (int i = 0; i < 8; i++) {
+                bytes[i] = (byte) (keyHigh[slot] >>> (56 - i * 8));
+                bytes[8 + i] = (byte) (keyLow[slot] >>> (56 - i * 8));
+            }
+            try {
+                return InetAddress.getByAddress(bytes).getHostAddress() + (subnet ? "/64" : "");
+            } catch (UnknownHostException e) {
+                return "?";
+            }
+        }
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Mélange 64 bits (finaliseur de SplitMix64)
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,129 @@
+package com.security.minecraft2fa.managers;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immobilisation des joueurs bloqués, appliquée une seule fois au blocage.
+ *
+ * Le joueur est ancré à sa position, ses vitesses de marche et de vol passent à zéro et il devient
+ * invulnérable ; tout est restauré à l'identique au déblocage. Le client ne cherchant plus à se
+ * déplacer, le handler de mouvement se limite à une comparaison avec l'ancre. Les valeurs d'origine
+ * sont aussi écrites dans les données persistantes du joueur, pour être restaurées à la connexion
+ * suivante si le serveur s'arrête sans déblocage. Toutes les méthodes s'exécutent sur le thread principal.
+ */
+public class FreezeController {
+
+    // Écart horizontal toléré autour de l'ancre (au carré), et hauteur maximale au-dessus (saut)
+    private static final double MAX_HORIZONTAL_SQUARED = 1.0;
+    private static final double MAX_RISE = 1.5;
+
+    private record Frozen(Location anchor, float walkSpeed, float flySpeed, boolean invulnerable) {
+
+        String encode() {
+            return walkSpeed + ";" + flySpeed + ";" + invulnerable;
+        }
+    }
+
+    private final Map<UUID, Frozen> frozen = new HashMap<>();
+    private final NamespacedKey key;
+
+    public FreezeController(Minecraft2FAPlugin plugin) {
+        this.key = new NamespacedKey(plugin, "freeze");
+    }
+
+    public void freeze(Player player) {
+        if (frozen.containsKey(player.getUniqueId())) {
+            return;
+        }
+        Frozen state = new Frozen(player.getLocation(), player.getWalkSpeed(), player.getFlySpeed(), player.isInvulnerable());
+        frozen.put(player.getUniqueId(), state);
+        player.getPersistentDataContainer().set(key, PersistentDataType.STRING, state.encode());
+
+        player.setWalkSpeed(0f);
+        player.setFlySpeed(0f);
+        player.setInvulnerable(true);
+    }
+
+    public void unfreeze(Player player) {
+        Frozen state = frozen.remove(player.getUniqueId());
+        if (state == null) {
+            return;
+        }
+        player.setWalkSpeed(state.walkSpeed());
+        player.setFlySpeed(state.flySpeed());
+        player.setInvulnerable(state.invulnerable());
+        player.getPersistentDataContainer().remove(key);
+    }
+
+    /**
+     * Restaure un joueur resté immobilisé après un arrêt du serveur (appelé à la connexion)
+     */
+    public void recover(Player player) {
+        if (frozen.containsKey(player.getUniqueId())) {
+            return;
+        }
+        PersistentDataContainer data = player.getPersistentDataContainer();
+        String saved = data.get(key, PersistentDataType.STRING);
+        if (saved == null) {
+            return;
+        }
+        String[] fields = saved.split(";");
+        try {
+            player.setWalkSpeed(Float.parseFloat(fields[0]));
+            player.setFlySpeed(Float.parseFloat(fields[1]));
+            player.setInvulnerable(Boolean.parseBoolean(fields[2]));
+        } catch (RuntimeException e) {
+            // Valeurs illisibles : vitesses par défaut de Minecraft
+            player.setWalkSpeed(0.2f);
+            player.setFlySpeed(0.1f);
+            player.setInvulnerable(false);
+        }
+        data.remove(key);
+    }
+
+    /**
+     * Position à imposer si le déplacement sort de la zone de l'ancre, null s'il est toléré
+     */
+    public Location correct(Player player, Location from, Location to) {
+        Frozen state = frozen.get(player.getUniqueId());
+        if (state == null) {
+            // Blocage pas encore appliqué : comportement d'origine
+            return from;
+        }
+        Location anchor = state.anchor();
+        if (to.getWorld() == anchor.getWorld()) {
+            double dx = to.getX() - anchor.getX();
+            double dz = to.getZ() - anchor.getZ();
+            if (dx * dx + dz * dz <= MAX_HORIZONTAL_SQUARED && to.getY() - anchor.getY() <= MAX_RISE) {
+                return null;
+            }
+        }
+        Location corrected = anchor.clone();
+        corrected.setYaw(to.getYaw());
+        corrected.setPitch(to.getPitch());
+        return corrected;
+    }
+
+    /**
+     * Restaure tous les joueurs immobilisés (arrêt du plugin)
+     */
+    public void shutdown() {
+        for (UUID uuid : frozen.keySet().toArray(new UUID[0])) {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player != null) {
+                unfreeze(player);
+            }
+        }
+        frozen.clear();
+    }
+}
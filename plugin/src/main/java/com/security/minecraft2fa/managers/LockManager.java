@@ -0,0 +1,232 @@
+package com.security.minecraft2fa.managers;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.api.AuthState;
+import com.security.minecraft2fa.api.TwoFactorApi;
+import com.security.minecraft2fa.api.TwoFactorStateChangeEvent;
+import com.security.minecraft2fa.listeners.LockedPlayerListener;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Suit l'état 2FA des joueurs en ligne et les joueurs bloqués en attente d'authentification.
+ *
+ * Les handlers restrictifs (mouvement, interactions, chat...) ne sont enregistrés auprès de Bukkit
+ * que tant qu'au moins un joueur est bloqué : sans joueur bloqué, le plugin n'ajoute aucun coût
+ * aux événements de jeu. Cet état en mémoire sert aussi l'API publique {@link TwoFactorApi}.
+ */
+public class LockManager implements TwoFactorApi {
+
+    private final Minecraft2FAPlugin plugin;
+    private final Map<UUID, AuthState> states = new ConcurrentHashMap<>();
+    private final Set<UUID> lockedPlayers = ConcurrentHashMap.newKeySet();
+    private final LockedPlayerListener lockedListener;
+    private final FreezeController freezeController;
+    private boolean handlersRegistered = false;
+
+    public LockManager(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+        this.lockedListener = new LockedPlayerListener(plugin, this);
+        this.freezeController = new FreezeController(plugin);
+    }
+
+    /**
+     * Réévalue l'état d'un joueur, retourne true s'il est bloqué
+     */
+    public boolean refresh(Player player, TwoFactorStateChangeEvent.Reason reason) {
+        if (reason == TwoFactorStateChangeEvent.Reason.JOIN) {
+            freezeController.recover(player);
+        }
+        AuthState state;
+        if (!plugin.getAuthManager().requiresAuth(player)) {
+            state = AuthState.NOT_REQUIRED;
+        } else if (!plugin.getReadinessGate().isReady()) {
+            // Stockages encore en cours d'initialisation : bloqué jusqu'à l'ouverture de la barrière
+            state = AuthState.LOCKED;
+        } else if (plugin.getAuthManager().isAuthenticated(player)) {
+            state = AuthState.AUTHENTICATED;
+        } else {
+            state = AuthState.LOCKED;
+        }
+        transition(player, state, reason);
+        return state == AuthState.LOCKED;
+    }
+
+    /**
+     * Revalidation périodique à partir des seules données en mémoire (permissions, cache local des sessions)
+     */
+    public void revalidate(Player player) {
+        AuthState current = getState(player.getUniqueId());
+        if (current == AuthState.OFFLINE) {
+            return;
+        }
+
+        AuthState state;
+        if (!plugin.getAuthManager().requiresAuth(player)) {
+            state = AuthState.NOT_REQUIRED;
+        } else {
+            String ip = player.getAddress().getAddress().getHostAddress();
+            state = plugin.getSessionManager().hasCachedSession(player.getUniqueId(), ip)
+                ? AuthState.AUTHENTICATED : AuthState.LOCKED;
+        }
+        if (state == current) {
+            return;
+        }
+
+        boolean permissionChanged = (current == AuthState.NOT_REQUIRED) != (state == AuthState.NOT_REQUIRED);
+        transition(player, state, permissionChanged
+            ? TwoFactorStateChangeEvent.Reason.PERMISSION_CHANGE : TwoFactorStateChangeEvent.Reason.EXPIRY);
+        if (state == AuthState.LOCKED) {
+            sendAuthMessage(player);
+        }
+    }
+
+    /**
+     * Marque un joueur comme authentifié après une vérification ou une configuration réussie
+     */
+    public void markAuthenticated(Player player, TwoFactorStateChangeEvent.Reason reason) {
+        AuthState state = plugin.getAuthManager().requiresAuth(player) ? AuthState.AUTHENTICATED : AuthState.NOT_REQUIRED;
+        transition(player, state, reason);
+    }
+
+    /**
+     * Oublie un joueur qui se déconnecte
+     */
+    public void remove(Player player) {
+        transition(player, AuthState.OFFLINE, TwoFactorStateChangeEvent.Reason.LOGOUT);
+    }
+
+    /**
+     * Lecture O(1), utilisable depuis n'importe quel thread
+     */
+    public boolean isLocked(UUID uuid) {
+        return lockedPlayers.contains(uuid);
+    }
+
+    @Override
+    public AuthState getState(UUID uuid) {
+        return states.getOrDefault(uuid, AuthState.OFFLINE);
+    }
+
+    @Override
+    public Map<UUID, AuthState> getStates(Collection<UUID> uuids) {
+        Map<UUID, AuthState> result = new HashMap<>(uuids.size() * 2);
+        for (UUID uuid : uuids) {
+            result.put(uuid, getState(uuid));
+        }
+        return result;
+    }
+
+    /**
+     * Envoie au joueur le message d'authentification approprié
+     */
+    public void sendAuthMessage(Player player) {
+        lockedListener.sendAuthMessage(player);
+    }
+
+    public Set<UUID> getLockedPlayers() {
+        return Collections.unmodifiableSet(lockedPlayers);
+    }
+
+    public FreezeController getFreezeController() {
+        return freezeController;
+    }
+
+    public void shutdown() {
+        freezeController.shutdown();
+        states.clear();
+        lockedPlayers.clear();
+        if (handlersRegistered) {
+            lockedListener.unregister();
+            handlersRegistered = false;
+        }
+    }
+
+    private void transition(Player player, AuthState newState, TwoFactorStateChangeEvent.Reason reason) {
+        UUID uuid = player.getUniqueId();
+        AuthState previous = newState == AuthState.OFFLINE ? states.remove(uuid) : states.put(uuid, newState);
+        if (previous == null) {
+            previous = AuthState.OFFLINE;
+        }
+
+        boolean lockChanged = newState == AuthState.LOCKED ? lockedPlayers.add(uuid) : lockedPlayers.remove(uuid);
+        if (lockChanged || reason == TwoFactorStateChangeEvent.Reason.RESET) {
+            lockedListener.forget(uuid);
+        }
+        if (lockChanged) {
+            updateRegistration();
+            applyLockEffects(player, newState == AuthState.LOCKED);
+        }
+
+        if (previous != newState) {
+            // Une session authentifiée qui redevient bloquée sans réinitialisation a expiré ou été invalidée
+            if (previous == AuthState.AUTHENTICATED && newState == AuthState.LOCKED
+                    && reason != TwoFactorStateChangeEvent.Reason.RESET) {
+                reason = TwoFactorStateChangeEvent.Reason.EXPIRY;
+            }
+            fireStateChange(new TwoFactorStateChangeEvent(player, previous, newState, reason));
+        }
+    }
+
+    private void fireStateChange(TwoFactorStateChangeEvent event) {
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, () -> fireStateChange(event));
+            return;
+        }
+        Bukkit.getPluginManager().callEvent(event);
+    }
+
+    /**
+     * Immobilise ou libère le joueur et lui renvoie l'arbre des commandes
+     * (réduit aux commandes autorisées une fois bloqué, complet au déblocage)
+     */
+    private void applyLockEffects(Player player, boolean locked) {
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, () -> applyLockEffects(player, locked));
+            return;
+        }
+        if (!locked) {
+            // Aussi à la déconnexion, avant la sauvegarde des données du joueur
+            freezeController.unfreeze(player);
+        }
+        if (!plugin.isEnabled() || !player.isOnline()) {
+            return;
+        }
+        if (locked && isLocked(player.getUniqueId())) {
+            freezeController.freeze(player);
+        }
+        player.updateCommands();
+    }
+
+    /**
+     * Enregistre ou retire les handlers restrictifs selon la présence de joueurs bloqués
+     */
+    private void updateRegistration() {
+        if (!Bukkit.isPrimaryThread()) {
+            Bukkit.getScheduler().runTask(plugin, this::updateRegistration);
+            return;
+        }
+        if (!plugin.isEnabled()) {
+            return;
+        }
+
+        boolean needed = !lockedPlayers.isEmpty();
+        if (needed && !handlersRegistered) {
+            lockedListener.register();
+            handlersRegistered = true;
+            plugin.getLogger().fine("Handlers restrictifs enregistrés");
+        } else if (!needed && handlersRegistered) {
+            lockedListener.unregister();
+            handlersRegistered = false;
+            plugin.getLogger().fine("Handlers restrictifs retirés - Aucun joueur bloqué");
+        }
+    }
+}
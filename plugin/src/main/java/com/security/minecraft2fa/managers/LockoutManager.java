@@ -0,0 +1,280 @@
+package com.security.minecraft2fa.managers;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.utils.IoExecutor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Blocages temporaires après trop de tentatives 2FA échouées, par UUID et par IP.
+ *
+ * Les blocages sont gardés en mémoire et vérifiés dès l'AsyncPlayerPreLoginEvent : un joueur bloqué
+ * est refusé avant la création de son entité, sans requête en base. Ils sont sauvegardés en arrière-plan
+ * dans lockouts.dat et partagés entre serveurs via Redis lorsqu'il est disponible. La liste de bans
+ * du serveur n'est plus modifiée.
+ *
+ * Le blocage d'un joueur retient l'IP bloquée avec lui, pour que sa levée libère aussi l'IP. Une copie
+ * locale présente dans Redis est revérifiée à chaque connexion : un blocage levé depuis un autre
+ * serveur n'est pas conservé.
+ */
+public class LockoutManager {
+
+    private static final String REDIS_PLAYER_KEY = "2fa:lockout:player:";
+    private static final String REDIS_IP_KEY = "2fa:lockout:ip:";
+
+    /**
+     * Blocage : date de fin, IP bloquée avec le joueur (null sinon) et présence d'une copie dans Redis
+     */
+    private record Lockout(long expiresAt, String ip, boolean shared) {
+
+        Lockout asShared() {
+            return new Lockout(expiresAt, ip, true);
+        }
+
+        String encode() {
+            return ip != null ? expiresAt + " " + ip : Long.toString(expiresAt);
+        }
+
+        /**
+         * Valeur Redis "fin [ip]", null si absente ou illisible
+         */
+        static Lockout decode(String value) {
+            if (value == null) {
+                return null;
+            }
+            int space = value.indexOf(' ');
+            try {
+                return space < 0 ? new Lockout(Long.parseLong(value), null, true)
+                    : new Lockout(Long.parseLong(value.substring(0, space)), value.substring(space + 1), true);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private final Minecraft2FAPlugin plugin;
+    private final Map<UUID, Lockout> playerLockouts = new ConcurrentHashMap<>();
+    private final Map<String, Lockout> ipLockouts = new ConcurrentHashMap<>();
+    private final AtomicBoolean savePending = new AtomicBoolean(false);
+    private final Path file;
+    private final Path tempFile;
+
+    public LockoutManager(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+        this.file = plugin.getDataFolder().toPath().resolve("lockouts.dat");
+        this.tempFile = file.resolveSibling("lockouts.dat.tmp");
+    }
+
+    /**
+     * Restaure les blocages encore actifs depuis le fichier local
+     */
+    public void load() {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        int count = 0;
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                // Format : type (p|i), clé, expiration en millisecondes[, IP bloquée avec le joueur]
+                String[] fields = line.split(" ");
+                if (fields.length != 3 && fields.length != 4) {
+                    continue;
+                }
+                long expiresAt = Long.parseLong(fields[2]);
+                if (expiresAt <= now) {
+                    continue;
+                }
+                // Copies restaurées tenues pour locales : seules des levées vues depuis ce serveur les suppriment
+                if (fields[0].equals("p")) {
+                    playerLockouts.put(UUID.fromString(fields[1]), new Lockout(expiresAt, fields.length == 4 ? fields[3] : null, false));
+                } else if (fields[0].equals("i")) {
+                    ipLockouts.put(fields[1], new Lockout(expiresAt, null, false));
+                }
+                count++;
+            }
+            plugin.getLogger().info(count + " blocage(s) 2FA restauré(s)");
+        } catch (IOException | IllegalArgumentException e) {
+            plugin.getLogger().warning("Impossible de lire les blocages 2FA: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bloque un joueur (et son IP si security.lockout-by-ip est actif) pour la durée donnée
+     */
+    public void lockout(UUID uuid, String ip, long durationMillis) {
+        long expiresAt = System.currentTimeMillis() + durationMillis;
+        boolean byIp = ip != null && plugin.getConfig().getBoolean("security.lockout-by-ip", true);
+        Lockout playerLockout = new Lockout(expiresAt, byIp ? ip : null, false);
+        Lockout ipLockout = new Lockout(expiresAt, null, false);
+        playerLockouts.put(uuid, playerLockout);
+        if (byIp) {
+            ipLockouts.put(ip, ipLockout);
+        }
+        scheduleSave();
+
+        if (plugin.getSessionManager().isUsingRedis()) {
+            plugin.getIoExecutor().run(IoExecutor.Category.REDIS, () -> {
+                // Une copie n'est marquée partagée qu'une fois écrite : Redis fait alors foi pour sa levée
+                if (share(REDIS_PLAYER_KEY + uuid, durationMillis, playerLockout)) {
+                    playerLockouts.replace(uuid, playerLockout, playerLockout.asShared());
+                }
+                if (byIp && share(REDIS_IP_KEY + ip, durationMillis, ipLockout)) {
+                    ipLockouts.replace(ip, ipLockout, ipLockout.asShared());
+                }
+            });
+        }
+    }
+
+    /**
+     * Retourne la date de fin du blocage en cours pour ce joueur ou cette IP, 0 s'il n'est pas bloqué.
+     *
+     * Peut interroger Redis : à appeler hors du thread principal (AsyncPlayerPreLoginEvent).
+     */
+    public long getLockoutExpiry(UUID uuid, String ip) {
+        long now = System.currentTimeMillis();
+        boolean shared = plugin.getSessionManager().isUsingRedis();
+        long playerExpiry = expiry(playerLockouts, uuid, shared ? REDIS_PLAYER_KEY + uuid : null, now);
+        long ipExpiry = ip == null ? 0 : expiry(ipLockouts, ip, shared ? REDIS_IP_KEY + ip : null, now);
+        return Math.max(playerExpiry, ipExpiry);
+    }
+
+    /**
+     * Lève le blocage d'un joueur et celui de l'IP bloquée avec lui (réinitialisation administrateur)
+     */
+    public void clear(UUID uuid) {
+        Lockout removed = playerLockouts.remove(uuid);
+        String ip = removed != null ? removed.ip() : null;
+        if (ip != null) {
+            ipLockouts.remove(ip);
+        }
+        if (removed != null) {
+            scheduleSave();
+        }
+        if (!plugin.getSessionManager().isUsingRedis()) {
+            return;
+        }
+
+        plugin.getIoExecutor().run(IoExecutor.Category.REDIS, () -> {
+            // Blocage posé par un autre serveur : l'IP est lue dans la copie Redis
+            String sharedIp = plugin.getSessionManager().redisWrite("levée de blocage 2FA", jedis -> {
+                String lockedIp = ip;
+                if (lockedIp == null) {
+                    Lockout remote = Lockout.decode(jedis.get(REDIS_PLAYER_KEY + uuid));
+                    lockedIp = remote != null ? remote.ip() : null;
+                }
+                jedis.del(REDIS_PLAYER_KEY + uuid);
+                if (lockedIp != null) {
+                    jedis.del(REDIS_IP_KEY + lockedIp);
+                }
+                return lockedIp;
+            });
+            if (sharedIp != null && ipLockouts.remove(sharedIp) != null) {
+                scheduleSave();
+            }
+        });
+    }
+
+    /**
+     * Sauvegarde synchrone, appelée à l'arrêt du plugin
+     */
+    public void shutdown() {
+        save();
+    }
+
+    /**
+     * Fin du blocage d'une clé, 0 si elle n'est pas bloquée. Redis (redisKey non null) fait foi sauf pour
+     * une copie locale jamais partagée ; s'il ne répond pas, la copie locale est conservée.
+     */
+    private <K> long expiry(Map<K, Lockout> lockouts, K key, String redisKey, long now) {
+        Lockout local = lockouts.get(key);
+        if (local != null && local.expiresAt() <= now) {
+            lockouts.remove(key, local);
+            local = null;
+        }
+        if (redisKey == null || (local != null && !local.shared())) {
+            return local != null ? local.expiresAt() : 0;
+        }
+
+        // Lecture sur le primaire : une levée toute récente ne doit pas être masquée par un réplica en retard
+        Optional<String> value = plugin.getSessionManager().redisWrite("lecture de blocage 2FA",
+            jedis -> Optional.ofNullable(jedis.get(redisKey)));
+        if (value == null) {
+            return local != null ? local.expiresAt() : 0;
+        }
+        Lockout remote = Lockout.decode(value.orElse(null));
+        if (remote == null || remote.expiresAt() <= now) {
+            // Blocage levé depuis un autre serveur
+            if (local != null && lockouts.remove(key, local)) {
+                scheduleSave();
+            }
+            return 0;
+        }
+        // Blocage posé par un autre serveur (ou prolongé) : copié dans la table de sa propre clé
+        lockouts.put(key, remote);
+        return remote.expiresAt();
+    }
+
+    /**
+     * Écrit la copie Redis d'un blocage, retourne true si elle a été enregistrée
+     */
+    private boolean share(String key, long durationMillis, Lockout lockout) {
+        return plugin.getSessionManager().redisWrite("blocage 2FA",
+            jedis -> jedis.psetex(key, durationMillis, lockout.encode())) != null;
+    }
+
+    /**
+     * Regroupe les écritures : une seule sauvegarde en attente à la fois
+     */
+    private void scheduleSave() {
+        if (savePending.compareAndSet(false, true)) {
+            plugin.getIoExecutor().run(IoExecutor.Category.FILE, this::save)
+                .exceptionally(e -> {
+                    savePending.set(false);
+                    return null;
+                });
+        }
+    }
+
+    private synchronized void save() {
+        savePending.set(false);
+        long now = System.currentTimeMillis();
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                for (Map.Entry<UUID, Lockout> entry : playerLockouts.entrySet()) {
+                    if (entry.getValue().expiresAt() > now) {
+                        out.write("p " + entry.getKey() + " " + entry.getValue().encode());
+                        out.newLine();
+                    }
+                }
+                for (Map.Entry<String, Lockout> entry : ipLockouts.entrySet()) {
+                    if (entry.getValue().expiresAt() > now) {
+                        out.write("i " + entry.getKey() + " " + entry.getValue().expiresAt());
+                        out.newLine();
+                    }
+                }
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().warning("Impossible d'écrire les blocages 2FA: " + e.getMessage());
+        }
+    }
+}
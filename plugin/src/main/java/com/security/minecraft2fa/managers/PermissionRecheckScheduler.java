@@ -0,0 +1,122 @@
+package com.security.minecraft2fa.managers;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.user.User;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Regroupe les changements de permissions LuckPerms en une seule revérification par joueur et par tick.
+ *
+ * Les événements (potentiellement des centaines lors d'une modification en masse) ne font qu'alimenter
+ * un ensemble de joueurs et de groupes à traiter ; un unique tick résout les groupes en membres connectés
+ * puis applique les vérifications par lots de taille bornée.
+ */
+public class PermissionRecheckScheduler {
+
+    private final Minecraft2FAPlugin plugin;
+    private final LuckPerms luckPerms;
+    private final Consumer<Player> check;
+    private final Set<UUID> pendingPlayers = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingGroups = ConcurrentHashMap.newKeySet();
+    // Joueurs restant à vérifier, dans l'ordre d'arrivée (thread principal uniquement)
+    private final Set<UUID> batch = new LinkedHashSet<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    public PermissionRecheckScheduler(Minecraft2FAPlugin plugin, LuckPerms luckPerms, Consumer<Player> check) {
+        this.plugin = plugin;
+        this.luckPerms = luckPerms;
+        this.check = check;
+    }
+
+    /**
+     * Demande la revérification d'un utilisateur (appelable depuis n'importe quel thread)
+     */
+    public void requestUser(UUID uuid) {
+        if (pendingPlayers.add(uuid)) {
+            schedule();
+        }
+    }
+
+    /**
+     * Demande la revérification des membres connectés d'un groupe (appelable depuis n'importe quel thread)
+     */
+    public void requestGroup(Group group) {
+        if (pendingGroups.add(group.getName())) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true) && plugin.isEnabled()) {
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    /**
+     * Exécuté sur le thread principal : résout les groupes puis traite un lot de joueurs
+     */
+    private void flush() {
+        scheduled.set(false);
+
+        if (!pendingGroups.isEmpty()) {
+            Set<String> groups = drain(pendingGroups);
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                if (!pendingPlayers.contains(player.getUniqueId()) && inheritsAny(player.getUniqueId(), groups)) {
+                    pendingPlayers.add(player.getUniqueId());
+                }
+            }
+        }
+
+        batch.addAll(drain(pendingPlayers));
+
+        int batchSize = Math.max(1, plugin.getConfig().getInt("permissions.recheck-batch-size", 50));
+        Iterator<UUID> iterator = batch.iterator();
+        for (int i = 0; i < batchSize && iterator.hasNext(); i++) {
+            Player player = Bukkit.getPlayer(iterator.next());
+            iterator.remove();
+            if (player != null) {
+                check.accept(player);
+            }
+        }
+
+        // Reste des joueurs à vérifier : lot suivant au prochain tick
+        if (!batch.isEmpty() && scheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTask(plugin, this::flush);
+        }
+    }
+
+    private boolean inheritsAny(UUID uuid, Set<String> groups) {
+        User user = luckPerms.getUserManager().getUser(uuid);
+        if (user == null) {
+            return false;
+        }
+        for (Group group : user.getInheritedGroups(user.getQueryOptions())) {
+            if (groups.contains(group.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> Set<T> drain(Set<T> pending) {
+        Set<T> drained = new HashSet<>();
+        Iterator<T> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+}
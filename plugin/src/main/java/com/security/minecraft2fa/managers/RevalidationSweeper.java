@@ -0,0 +1,82 @@
+package com.security.minecraft2fa.managers;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revalidation périodique et incrémentale de tous les joueurs connectés.
+ *
+ * Chaque tick traite une tranche de joueurs en tourniquet, bornée à la fois par un quota (pour que le
+ * cycle complet tienne dans revalidation.cycle-seconds) et par un budget de temps par tick. Les
+ * vérifications n'utilisent que des données en mémoire : permissions et cache local des sessions.
+ */
+public class RevalidationSweeper {
+
+    private final Minecraft2FAPlugin plugin;
+    private final Deque<UUID> queue = new ArrayDeque<>();
+    private final long cycleTicks;
+    private final long tickBudgetNanos;
+    private BukkitTask task;
+    private long ticksSinceCycleStart;
+    private int quota;
+
+    public RevalidationSweeper(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+        this.cycleTicks = Math.max(1, plugin.getConfig().getLong("revalidation.cycle-seconds", 30)) * 20L;
+        this.tickBudgetNanos = TimeUnit.MICROSECONDS.toNanos(
+            Math.max(50, plugin.getConfig().getLong("revalidation.tick-budget-micros", 500)));
+    }
+
+    public void start() {
+        if (!plugin.getConfig().getBoolean("revalidation.enabled", true)) {
+            return;
+        }
+        ticksSinceCycleStart = cycleTicks;
+        task = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        queue.clear();
+    }
+
+    private void tick() {
+        ticksSinceCycleStart++;
+        if (queue.isEmpty()) {
+            // Nouveau cycle au plus une fois par période
+            if (ticksSinceCycleStart < cycleTicks || !plugin.getReadinessGate().isReady()) {
+                return;
+            }
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                queue.add(player.getUniqueId());
+            }
+            ticksSinceCycleStart = 0;
+            // Le cycle se termine en 90% de la période, laissant une marge aux ticks dépassant le budget
+            quota = (int) Math.max(1, (queue.size() * 10 + cycleTicks * 9 - 1) / (cycleTicks * 9));
+        }
+
+        long start = plugin.getHandlerTimings().begin();
+        long deadline = System.nanoTime() + tickBudgetNanos;
+        LockManager lockManager = plugin.getLockManager();
+        for (int processed = 0; processed < quota && !queue.isEmpty(); processed++) {
+            Player player = Bukkit.getPlayer(queue.poll());
+            if (player != null) {
+                lockManager.revalidate(player);
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        plugin.getHandlerTimings().end("revalidation", start);
+    }
+}
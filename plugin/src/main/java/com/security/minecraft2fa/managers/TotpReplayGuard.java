@@ -0,0 +1,64 @@
+package com.security.minecraft2fa.managers;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import redis.clients.jedis.params.SetParams;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Empêche qu'un même code TOTP soit accepté deux fois.
+ *
+ * Localement, chaque joueur a un compteur atomique du dernier pas de temps accepté : un code d'un pas
+ * égal ou antérieur est refusé, sans verrou ni allocation après la première vérification. En mode
+ * multi-serveur, le pas est en plus réservé par un SET NX EX Redis : un seul serveur peut l'accepter.
+ */
+public class TotpReplayGuard {
+
+    private static final String REDIS_KEY = "2fa:totp:";
+    // Durée de vie d'une réservation : couvre la fenêtre de tolérance des codes (±1 pas de 30 s)
+    private static final long CLAIM_TTL_SECONDS = 120;
+
+    private final Minecraft2FAPlugin plugin;
+    private final Map<UUID, AtomicLong> lastAcceptedStep = new ConcurrentHashMap<>();
+
+    public TotpReplayGuard(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Réserve le pas de temps d'un code valide, retourne false s'il a déjà été utilisé
+     */
+    public boolean claim(UUID uuid, long step) {
+        AtomicLong last = lastAcceptedStep.get(uuid);
+        if (last == null) {
+            last = lastAcceptedStep.computeIfAbsent(uuid, key -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        long previous;
+        do {
+            previous = last.get();
+            if (step <= previous) {
+                return false;
+            }
+        } while (!last.compareAndSet(previous, step));
+
+        if (!plugin.getSessionManager().isUsingRedis()) {
+            return true;
+        }
+        Boolean claimed = plugin.getSessionManager().redisWrite("réservation de code 2FA", jedis ->
+            "OK".equals(jedis.set(REDIS_KEY + uuid + ":" + step, plugin.getServer().getName(),
+                SetParams.setParams().nx().ex(CLAIM_TTL_SECONDS))));
+        // Redis indisponible : la protection locale reste appliquée
+        return claimed == null || claimed;
+    }
+
+    /**
+     * Oublie un joueur (réinitialisation du 2FA)
+     */
+    public void forget(UUID uuid) {
+        lastAcceptedStep.remove(uuid);
+    }
+}
@@ -0,0 +1,455 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.utils.IoExecutor;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Historique des événements d'authentification (vérifications, échecs, configurations, réinitialisations, blocages).
+ *
+ * Les événements sont mis en file sans bloquer l'appelant puis insérés par lots en arrière-plan.
+ * Stockage découpé par mois (UTC) : partitions RANGE sur la colonne ts en MySQL, une table
+ * auth_events_AAAAMM par mois en SQLite. La rétention supprime des partitions ou tables entières.
+ * Les index (uuid, ts, ...) et (ip, ts, ...) couvrent les colonnes lues par l'historique, parcouru
+ * page par page à partir d'un curseur (ts, id).
+ */
+public class AuthEventStore {
+
+    private static final String TABLE = "auth_events";
+    private static final int BATCH_SIZE = 500;
+    private static final long MAINTENANCE_INTERVAL_TICKS = 20L * 60 * 60 * 6;
+
+    public enum Type {
+        VERIFY, FAILURE, SETUP, SETUP_FAILURE, RESET, LOCKOUT, THROTTLE
+    }
+
+    public record AuthEvent(long id, long ts, Type type, UUID uuid, String name, String ip, String detail) {}
+
+    /**
+     * Position dans l'historique : les événements strictement antérieurs à (ts, id) restent à lire
+     */
+    public record Cursor(long ts, long id) {
+
+        public static final Cursor START = new Cursor(Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public record Page(List<AuthEvent> events, Cursor next) {}
+
+    private final Minecraft2FAPlugin plugin;
+    private final boolean enabled;
+    private final int retentionMonths;
+    private final BlockingQueue<AuthEvent> queue;
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+    private final AtomicLong dropped = new AtomicLong();
+    // Mois (AAAAMM) pour lesquels la table SQLite ou la partition MySQL existe
+    private final Set<Integer> months = new HashSet<>();
+    private volatile boolean initialized;
+    private volatile boolean stopped;
+    private boolean partitioned;
+    private Connection writer;
+    private BukkitTask flushTask;
+    private BukkitTask maintenanceTask;
+
+    public AuthEventStore(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getConfig().getBoolean("history.enabled", true);
+        this.retentionMonths = Math.max(1, plugin.getConfig().getInt("history.retention-months", 6));
+        this.queue = new ArrayBlockingQueue<>(Math.max(100, plugin.getConfig().getInt("history.queue-size", 10000)));
+    }
+
+    /**
+     * Crée le stockage en arrière-plan et démarre les écritures (à appeler une fois la base initialisée)
+     */
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, () -> {
+            try {
+                initialize();
+                initialized = true;
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Impossible d'initialiser l'historique 2FA: " + e.getMessage());
+            }
+        });
+
+        long interval = Math.max(1, plugin.getConfig().getLong("history.flush-interval-ticks", 40));
+        flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::scheduleFlush, interval, interval);
+        maintenanceTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () ->
+            plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, this::maintain),
+            MAINTENANCE_INTERVAL_TICKS, MAINTENANCE_INTERVAL_TICKS);
+    }
+
+    /**
+     * Arrête les tâches et écrit les événements encore en file (thread appelant)
+     */
+    public synchronized void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            maintenanceTask.cancel();
+            flushTask = null;
+        }
+        if (initialized) {
+            flush();
+        }
+        stopped = true;
+        closeWriter();
+    }
+
+    /**
+     * Ajoute un événement à la file d'écriture, sans jamais bloquer
+     */
+    public void record(Type type, UUID uuid, String name, String ip, String detail) {
+        if (!enabled) {
+            return;
+        }
+        if (!queue.offer(new AuthEvent(0, System.currentTimeMillis(), type, uuid, name, ip, detail))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void scheduleFlush() {
+        if (!initialized || queue.isEmpty() || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        plugin.getIoExecutor().run(IoExecutor.Category.DATABASE, this::flush)
+            .whenComplete((result, error) -> flushing.set(false));
+    }
+
+    private synchronized void flush() {
+        if (!initialized || stopped) {
+            return;
+        }
+        List<AuthEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+            try {
+                insert(batch);
+            } catch (SQLException e) {
+                dropped.addAndGet(batch.size());
+                plugin.getLogger().warning("Impossible d'écrire " + batch.size() + " événement(s) d'historique 2FA: " + e.getMessage());
+                closeWriter();
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    private void insert(List<AuthEvent> batch) throws SQLException {
+        Connection connection = writer();
+        // Un lot peut chevaucher deux mois : en SQLite, une requête par table
+        Map<String, List<AuthEvent>> byTable = new LinkedHashMap<>();
+        for (AuthEvent event : batch) {
+            String table = tableFor(connection, monthOf(event.ts()));
+            byTable.computeIfAbsent(table, key -> new ArrayList<>()).add(event);
+        }
+
+        connection.setAutoCommit(false);
+        try {
+            for (Map.Entry<String, List<AuthEvent>> entry : byTable.entrySet()) {
+                try (PreparedStatement stmt = connection.prepareStatement("INSERT INTO " + entry.getKey()
+                        + " (ts, uuid, name, ip, type, detail) VALUES (?, ?, ?, ?, ?, ?)")) {
+                    for (AuthEvent event : entry.getValue()) {
+                        stmt.setLong(1, event.ts());
+                        setNullable(stmt, 2, event.uuid() != null ? event.uuid().toString() : null);
+                        setNullable(stmt, 3, event.name());
+                        setNullable(stmt, 4, event.ip());
+                        stmt.setString(5, event.type().name());
+                        setNullable(stmt, 6, truncate(event.detail()));
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Lit une page d'historique d'un joueur (byIp = false) ou d'une IP, du plus récent au plus ancien
+     */
+    public Page query(boolean byIp, String value, long since, Cursor cursor, int pageSize) throws SQLException {
+        List<AuthEvent> events = new ArrayList<>(pageSize);
+        String column = byIp ? "ip" : "uuid";
+
+        try (Connection connection = plugin.getDatabaseManager().openConnection()) {
+            List<String> tables = new ArrayList<>();
+            if (plugin.getDatabaseManager().isMySQL()) {
+                tables.add(TABLE);
+            } else {
+                // Tables mensuelles du plus récent au plus ancien, sans remonter avant la date de début
+                int sinceMonth = monthOf(since);
+                for (int month : sqliteMonths(connection).descendingSet()) {
+                    if (month >= sinceMonth) {
+                        tables.add(TABLE + "_" + month);
+                    }
+                }
+            }
+
+            for (String table : tables) {
+                if (events.size() > pageSize) {
+                    break;
+                }
+                try (PreparedStatement stmt = connection.prepareStatement(
+                        "SELECT id, ts, type, uuid, name, ip, detail FROM " + table
+                        + " WHERE " + column + " = ? AND ts >= ? AND (ts < ? OR (ts = ? AND id < ?))"
+                        + " ORDER BY ts DESC, id DESC LIMIT ?")) {
+                    stmt.setString(1, value);
+                    stmt.setLong(2, since);
+                    stmt.setLong(3, cursor.ts());
+                    stmt.setLong(4, cursor.ts());
+                    stmt.setLong(5, cursor.id());
+                    // Une ligne de plus que la page pour savoir s'il en reste
+                    stmt.setInt(6, pageSize + 1 - events.size());
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            String uuid = rs.getString(4);
+                            events.add(new AuthEvent(rs.getLong(1), rs.getLong(2), Type.valueOf(rs.getString(3)),
+                                uuid != null ? UUID.fromString(uuid) : null, rs.getString(5), rs.getString(6), rs.getString(7)));
+                        }
+                    }
+                }
+            }
+        }
+
+        if (events.size() <= pageSize) {
+            return new Page(events, null);
+        }
+        events.remove(events.size() - 1);
+        AuthEvent last = events.get(events.size() - 1);
+        return new Page(events, new Cursor(last.ts(), last.id()));
+    }
+
+    private synchronized void initialize() throws SQLException {
+        Connection connection = writer();
+        if (plugin.getDatabaseManager().isMySQL()) {
+            createMySQLTable(connection);
+        } else {
+            months.addAll(sqliteMonths(connection));
+            tableFor(connection, monthOf(System.currentTimeMillis()));
+        }
+        maintain();
+        plugin.getLogger().info("Historique 2FA prêt (rétention: " + retentionMonths + " mois"
+            + (plugin.getDatabaseManager().isMySQL() && !partitioned ? ", sans partitionnement" : "") + ")");
+    }
+
+    private void createMySQLTable(Connection connection) throws SQLException {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        String columns = """
+            CREATE TABLE IF NOT EXISTS auth_events (
+                id BIGINT NOT NULL AUTO_INCREMENT,
+                ts BIGINT NOT NULL,
+                uuid CHAR(36) NULL,
+                name VARCHAR(16) NULL,
+                ip VARCHAR(45) NULL,
+                type VARCHAR(16) NOT NULL,
+                detail VARCHAR(64) NULL,
+                PRIMARY KEY (id, ts),
+                KEY idx_auth_events_uuid_ts (uuid, ts, type, ip, name, detail),
+                KEY idx_auth_events_ip_ts (ip, ts, type, uuid, name, detail)
+            )""";
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(columns + " PARTITION BY RANGE (ts) ("
+                + partitionClause(current) + ", " + partitionClause(current.plusMonths(1))
+                + ", PARTITION pmax VALUES LESS THAN MAXVALUE)");
+        } catch (SQLException e) {
+            // Partitionnement indisponible (moteur ou droits) : table simple, rétention par DELETE
+            plugin.getLogger().warning("Partitionnement de auth_events impossible, table simple utilisée: " + e.getMessage());
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(columns);
+            }
+        }
+    }
+
+    /**
+     * Relit les partitions existantes (un autre serveur partageant la base a pu les modifier)
+     */
+    private void loadPartitions(Connection connection) throws SQLException {
+        months.clear();
+        partitioned = false;
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+                + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL")) {
+            stmt.setString(1, TABLE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String partition = rs.getString(1);
+                    partitioned = true;
+                    if (partition.matches("p\\d{6}")) {
+                        months.add(Integer.parseInt(partition.substring(1)));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Crée les partitions ou tables à venir et supprime celles sorties de la rétention
+     */
+    private synchronized void maintain() {
+        if (stopped) {
+            return;
+        }
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        int oldest = toMonth(current.minusMonths(retentionMonths - 1));
+        try {
+            Connection connection = writer();
+            if (!plugin.getDatabaseManager().isMySQL()) {
+                tableFor(connection, toMonth(current));
+                for (int month : new TreeSet<>(months)) {
+                    if (month < oldest) {
+                        execute(connection, "DROP TABLE IF EXISTS " + TABLE + "_" + month);
+                        months.remove(month);
+                    }
+                }
+                return;
+            }
+
+            loadPartitions(connection);
+            if (!partitioned) {
+                try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM " + TABLE + " WHERE ts < ?")) {
+                    stmt.setLong(1, startOf(YearMonth.of(oldest / 100, oldest % 100)));
+                    stmt.executeUpdate();
+                }
+                return;
+            }
+
+            // Les partitions mensuelles sont découpées dans pmax, dans l'ordre, jusqu'au mois suivant
+            int latest = months.isEmpty() ? 0 : Collections.max(months);
+            YearMonth next = latest == 0 ? current : YearMonth.of(latest / 100, latest % 100).plusMonths(1);
+            for (; !next.isAfter(current.plusMonths(1)); next = next.plusMonths(1)) {
+                execute(connection, "ALTER TABLE " + TABLE + " REORGANIZE PARTITION pmax INTO ("
+                    + partitionClause(next) + ", PARTITION pmax VALUES LESS THAN MAXVALUE)");
+                months.add(toMonth(next));
+            }
+            for (int month : new TreeSet<>(months)) {
+                if (month < oldest) {
+                    execute(connection, "ALTER TABLE " + TABLE + " DROP PARTITION p" + month);
+                    months.remove(month);
+                }
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Erreur lors de la maintenance de l'historique 2FA: " + e.getMessage());
+            closeWriter();
+        }
+    }
+
+    /**
+     * Table où écrire les événements du mois (créée au besoin en SQLite)
+     */
+    private String tableFor(Connection connection, int month) throws SQLException {
+        if (plugin.getDatabaseManager().isMySQL()) {
+            return TABLE;
+        }
+        String table = TABLE + "_" + month;
+        if (months.add(month)) {
+            execute(connection, "CREATE TABLE IF NOT EXISTS " + table + " ("
+                + "id INTEGER PRIMARY KEY AUTOINCREMENT, ts INTEGER NOT NULL, uuid TEXT, name TEXT, "
+                + "ip TEXT, type TEXT NOT NULL, detail TEXT)");
+            execute(connection, "CREATE INDEX IF NOT EXISTS idx_" + table + "_uuid_ts ON " + table + " (uuid, ts, type, ip, name, detail)");
+            execute(connection, "CREATE INDEX IF NOT EXISTS idx_" + table + "_ip_ts ON " + table + " (ip, ts, type, uuid, name, detail)");
+        }
+        return table;
+    }
+
+    private TreeSet<Integer> sqliteMonths(Connection connection) throws SQLException {
+        TreeSet<Integer> found = new TreeSet<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table' AND name LIKE 'auth_events_%'")) {
+            while (rs.next()) {
+                String name = rs.getString(1);
+                if (name.matches("auth_events_\\d{6}")) {
+                    found.add(Integer.parseInt(name.substring(TABLE.length() + 1)));
+                }
+            }
+        }
+        return found;
+    }
+
+    private Connection writer() throws SQLException {
+        if (writer == null || writer.isClosed()) {
+            writer = plugin.getDatabaseManager().openConnection();
+        }
+        return writer;
+    }
+
+    private void closeWriter() {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (SQLException ignored) {
+            // Connexion déjà perdue
+        }
+        writer = null;
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static void setNullable(PreparedStatement stmt, int index, String value) throws SQLException {
+        if (value != null) {
+            stmt.setString(index, value);
+        } else {
+            stmt.setNull(index, Types.VARCHAR);
+        }
+    }
+
+    private static String truncate(String detail) {
+        return detail != null && detail.length() > 64 ? detail.substring(0, 64) : detail;
+    }
+
+    private static String partitionClause(YearMonth month) {
+        return "PARTITION p" + toMonth(month) + " VALUES LESS THAN (" + startOf(month.plusMonths(1)) + ")";
+    }
+
+    private static long startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static int monthOf(long ts) {
+        return toMonth(YearMonth.from(Instant.ofEpochMilli(ts).atZone(ZoneOffset.UTC)));
+    }
+
+    private static int toMonth(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+}
@@ -0,0 +1,603 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import lombok.RequiredArgsConstructor;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@RequiredArgsConstructor
+public class DatabaseManager {
+
+    private final Minecraft2FAPlugin plugin;
+    private volatile Connection connection;
+    
+    // Paramètres de connexion conservés pour ouvrir des connexions dédiées (import/export)
+    private String jdbcUrl;
+    private String jdbcUsername;
+    private String jdbcPassword;
+    private boolean mysql;
+    
+    // Nombre maximal d'UUID par requête IN (...)
+    private static final int BULK_CHUNK_SIZE = 500;
+    
+    // Trousseau des clés de chiffrement des secrets, à copier à l'identique sur tous les serveurs
+    private static final String KEYRING_FILE = "secrets.key";
+    private static final int SECRET_COLUMN_SIZE = 255;
+    
+    // Chiffrement des secrets (null si désactivé et aucun trousseau présent)
+    private volatile SecretCipher cipher;
+    private boolean encryptSecrets;
+    // Trousseau créé à ce démarrage : pas encore sauvegardé, rien n'est rechiffré avec lui
+    private boolean keyringGenerated;
+    private SecretKeyCache secretCache;
+    
+    // Marqueur « inscrit, clé non lue » (seule la présence a été lue dans le cache Redis)
+    private static final byte[] ENROLLED = new byte[0];
+    
+    // Cache Redis partagé des inscriptions (null sans Redis) et chargements en base en cours
+    private RedisSecretCache redisCache;
+    private final Map<UUID, CompletableFuture<String>> loadsInFlight = new ConcurrentHashMap<>();
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong localMisses = new AtomicLong();
+    private final AtomicLong databaseReads = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+
+    public void initialize() {
+        plugin.getLogger().info("Initialisation du DatabaseManager...");
+        
+        // Force MySQL si Redis est activé (mode multi-serveur)
+        boolean useRedis = plugin.getConfig().getBoolean("redis.enabled", false);
+        String dbType = useRedis ? "mysql" : plugin.getConfig().getString("database.type", "sqlite");
+
+        if (useRedis && !dbType.equals("mysql")) {
+            plugin.getLogger().warning("Mode multi-serveur détecté - Forçage de l'utilisation de MySQL pour la synchronisation des données");
+            dbType = "mysql";
+        }
+
+        secretCache = new SecretKeyCache(Math.max(1, plugin.getConfig().getInt("security.secret-cache-size", 1000)));
+        if (useRedis && plugin.getConfig().getBoolean("redis.secret-cache", true)) {
+            redisCache = new RedisSecretCache(plugin, this::evictLocal, this::clearLocal);
+        }
+        if (!loadCipher(useRedis)) {
+            return;
+        }
+
+        try {
+            if (dbType.equals("mysql")) {
+                plugin.getLogger().info("Configuration de la connexion MySQL...");
+                String host = plugin.getConfig().getString("database.mysql.host", "localhost");
+                int port = plugin.getConfig().getInt("database.mysql.port", 3306);
+                String database = plugin.getConfig().getString("database.mysql.database", "minecraft2fa");
+                String username = plugin.getConfig().getString("database.mysql.username", "root");
+                String password = plugin.getConfig().getString("database.mysql.password", "");
+                boolean ssl = plugin.getConfig().getBoolean("database.mysql.ssl", false);
+
+                plugin.getLogger().info("Paramètres MySQL: host=" + host + ", port=" + port + 
+                    ", database=" + database + ", username=" + username + ", ssl=" + ssl);
+
+                String url = String.format("jdbc:mysql://%s:%d/%s?useSSL=%b&allowPublicKeyRetrieval=true" +
+                    "&useUnicode=true&characterEncoding=utf8" +
+                    "&connectTimeout=5000" +
+                    "&socketTimeout=30000" +
+                    "&autoReconnect=true" +
+                    "&serverTimezone=UTC" +
+                    "&useLocalSessionState=true" +
+                    "&tcpKeepAlive=true" +
+                    "&rewriteBatchedStatements=true" +
+                    "&useHostsInPrivileges=false", 
+                    host, port, database, ssl);
+
+                plugin.getLogger().info("URL de connexion MySQL: " + url);
+                plugin.getLogger().info("Tentative de connexion MySQL...");
+                
+                jdbcUrl = url;
+                jdbcUsername = username;
+                jdbcPassword = password;
+                mysql = true;
+                connection = openConnection();
+                plugin.getLogger().info("Connexion MySQL établie avec succès!");
+                
+            } else {
+                plugin.getLogger().info("Utilisation de SQLite en mode standalone");
+                Class.forName("org.sqlite.JDBC");
+                String dbPath = plugin.getDataFolder().getAbsolutePath() + "/database.db";
+                plugin.getLogger().info("Chemin de la base SQLite: " + dbPath);
+                jdbcUrl = "jdbc:sqlite:" + dbPath;
+                connection = openConnection();
+                plugin.getLogger().info("Connexion SQLite établie avec succès!");
+            }
+            
+            // Création de la table pour stocker les secrets 2FA
+            plugin.getLogger().info("Création/vérification de la table two_factor_auth...");
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS two_factor_auth (
+                        uuid VARCHAR(36) PRIMARY KEY,
+                        secret_key VARCHAR(255) NOT NULL,
+                        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    )
+                """);
+                plugin.getLogger().info("Table two_factor_auth prête!");
+            }
+            if (mysql) {
+                widenSecretColumn();
+            }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Erreur lors de l'initialisation de la base de données: " + e.getMessage());
+            plugin.getLogger().severe("Stack trace: " + e.toString());
+            // En cas d'erreur avec MySQL en mode multi-serveur, on désactive le plugin
+            if (useRedis) {
+                plugin.getLogger().severe("ERREUR CRITIQUE: Impossible de se connecter à MySQL en mode multi-serveur!");
+                plugin.getLogger().severe("Le plugin sera désactivé pour éviter les problèmes de sécurité.");
+                plugin.getServer().getScheduler().runTask(plugin, () -> plugin.getServer().getPluginManager().disablePlugin(plugin));
+            }
+        }
+    }
+
+    /**
+     * Charge le trousseau de chiffrement, retourne false (et désactive le plugin) s'il est illisible,
+     * ou absent en mode multi-serveur
+     */
+    private boolean loadCipher(boolean useRedis) {
+        encryptSecrets = plugin.getConfig().getBoolean("security.encrypt-secrets", true);
+        File keyFile = new File(plugin.getDataFolder(), KEYRING_FILE);
+        // Sans chiffrement, le trousseau existant sert encore à relire les secrets déjà chiffrés
+        if (!encryptSecrets && !keyFile.exists()) {
+            return true;
+        }
+
+        // Une clé générée ici différerait de celle des autres serveurs : leurs secrets deviendraient illisibles
+        if (!keyFile.exists() && useRedis) {
+            plugin.getLogger().severe("Trousseau " + KEYRING_FILE + " absent en mode multi-serveur : copiez celui des autres serveurs"
+                + " (ou créez-le une seule fois puis copiez-le partout), ou désactivez security.encrypt-secrets");
+            plugin.getLogger().severe("Le plugin sera désactivé pour éviter les problèmes de sécurité.");
+            plugin.getServer().getScheduler().runTask(plugin, () -> plugin.getServer().getPluginManager().disablePlugin(plugin));
+            return false;
+        }
+
+        try {
+            keyringGenerated = !keyFile.exists();
+            if (keyringGenerated) {
+                plugin.getLogger().warning("Création d'un nouveau trousseau " + KEYRING_FILE
+                    + " : sauvegardez-le ; les secrets existants seront chiffrés au prochain démarrage");
+            }
+            cipher = SecretCipher.load(keyFile.toPath());
+            plugin.getLogger().info("Chiffrement des secrets " + (encryptSecrets ? "activé" : "désactivé")
+                + " (versions de clé: " + cipher.getVersions() + ")");
+            return true;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Impossible de charger le trousseau " + KEYRING_FILE + ": " + e.getMessage());
+            plugin.getLogger().severe("Le plugin sera désactivé pour éviter les problèmes de sécurité.");
+            plugin.getServer().getScheduler().runTask(plugin, () -> plugin.getServer().getPluginManager().disablePlugin(plugin));
+            return false;
+        }
+    }
+
+    /**
+     * Élargit la colonne secret_key des tables créées avant le chiffrement (VARCHAR(32))
+     */
+    private void widenSecretColumn() throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(null, null, "two_factor_auth", "secret_key")) {
+            if (!rs.next() || rs.getInt("COLUMN_SIZE") >= SECRET_COLUMN_SIZE) {
+                return;
+            }
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE two_factor_auth MODIFY secret_key VARCHAR(" + SECRET_COLUMN_SIZE + ") NOT NULL");
+            plugin.getLogger().info("Colonne secret_key élargie à " + SECRET_COLUMN_SIZE + " caractères");
+        }
+    }
+
+    /**
+     * Ouvre une nouvelle connexion vers la base configurée
+     */
+    public Connection openConnection() throws SQLException {
+        if (mysql) {
+            return DriverManager.getConnection(jdbcUrl, jdbcUsername, jdbcPassword);
+        }
+        return DriverManager.getConnection(jdbcUrl);
+    }
+
+    public boolean isMySQL() {
+        return mysql;
+    }
+
+    public void close() {
+        try {
+            if (connection != null && !connection.isClosed()) {
+                plugin.getLogger().info("Fermeture de la connexion à la base de données...");
+                connection.close();
+                plugin.getLogger().info("Connexion fermée avec succès!");
+            }
+            if (secretCache != null) {
+                secretCache.clear();
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Erreur lors de la fermeture de la base de données: " + e.getMessage());
+            plugin.getLogger().severe("Stack trace: " + e.toString());
+        }
+    }
+
+    /**
+     * Retourne la clé secrète du joueur en clair, null s'il n'a pas le 2FA.
+     * Pour un joueur connecté, la lecture et le déchiffrement ne sont faits qu'une fois par connexion.
+     */
+    public String getSecretKey(UUID uuid) {
+        long version = secretCache.version();
+        String cached = secretCache.lookup(uuid);
+        if (cached != null) {
+            localHits.incrementAndGet();
+            return cached.isEmpty() ? null : cached;
+        }
+        localMisses.incrementAndGet();
+
+        byte[] secret = loadSecretKey(uuid, false);
+        if (secret == null) {
+            return null;
+        }
+        String key = secret == SecretKeyCache.NOT_ENROLLED ? null : new String(secret, StandardCharsets.US_ASCII);
+        cacheIfOnline(uuid, secret, version);
+        return key;
+    }
+
+    /**
+     * Vérifie si le joueur a le 2FA, sans dépendre du déchiffrement de sa clé
+     */
+    public boolean hasSecretKey(UUID uuid) {
+        long version = secretCache.version();
+        String cached = secretCache.lookup(uuid);
+        if (cached != null) {
+            localHits.incrementAndGet();
+            return !cached.isEmpty();
+        }
+        localMisses.incrementAndGet();
+
+        byte[] secret = loadSecretKey(uuid, true);
+        if (secret == null) {
+            // Clé illisible : seule la présence de la ligne compte
+            return !getEnrolled(List.of(uuid)).isEmpty();
+        }
+        if (secret == ENROLLED) {
+            return true;
+        }
+        boolean enrolled = secret != SecretKeyCache.NOT_ENROLLED;
+        cacheIfOnline(uuid, secret, version);
+        return enrolled;
+    }
+
+    /**
+     * Oublie et efface la clé déchiffrée d'un joueur (déconnexion)
+     */
+    public void evictSecretKey(UUID uuid) {
+        evictLocal(uuid);
+    }
+
+    /**
+     * Démarre l'écoute des invalidations publiées par les autres serveurs (une fois Redis initialisé)
+     */
+    public void startSecretInvalidation() {
+        if (redisCache != null) {
+            redisCache.start();
+        }
+    }
+
+    public void stopSecretInvalidation() {
+        if (redisCache != null) {
+            redisCache.stop();
+        }
+    }
+
+    /**
+     * Lit et déchiffre la clé ; NOT_ENROLLED si aucune ligne, ENROLLED si seule la présence
+     * a été lue (presenceOnly), null en cas d'erreur
+     */
+    private byte[] loadSecretKey(UUID uuid, boolean presenceOnly) {
+        String stored = loadStoredKey(uuid, presenceOnly);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.isEmpty()) {
+            return SecretKeyCache.NOT_ENROLLED;
+        }
+        if (stored.equals(RedisSecretCache.ENROLLED)) {
+            return ENROLLED;
+        }
+
+        SecretCipher current = cipher;
+        if (current == null) {
+            return stored.getBytes(StandardCharsets.US_ASCII);
+        }
+        byte[] secret;
+        try {
+            secret = current.decrypt(uuid, stored);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            plugin.getLogger().severe("Impossible de déchiffrer la clé secrète de " + uuid + ": " + e.getMessage());
+            return null;
+        }
+        if (encryptSecrets && !keyringGenerated && current.needsReencryption(stored)) {
+            reencrypt(current, uuid, stored, secret);
+        }
+        return secret;
+    }
+
+    /**
+     * Valeur stockée de la clé : cache Redis puis base, "" si aucune ligne, null en cas d'erreur.
+     * Les lectures simultanées en base d'un même UUID sont regroupées en une seule requête.
+     */
+    private String loadStoredKey(UUID uuid, boolean presenceOnly) {
+        // Génération du cache Redis lue avant la requête : la valeur lue n'est partagée que si elle n'a pas changé
+        String generation = null;
+        if (redisCache != null) {
+            RedisSecretCache.Lookup lookup = redisCache.get(uuid);
+            String cached = lookup != null ? lookup.value() : null;
+            generation = lookup != null ? lookup.generation() : null;
+            if (cached != null) {
+                if (cached.equals(RedisSecretCache.NOT_ENROLLED)) {
+                    return "";
+                }
+                // Le marqueur seul ne suffit pas quand la clé elle-même est demandée
+                if (presenceOnly || !cached.equals(RedisSecretCache.ENROLLED)) {
+                    return cached;
+                }
+            }
+        }
+
+        CompletableFuture<String> load = new CompletableFuture<>();
+        CompletableFuture<String> pending = loadsInFlight.putIfAbsent(uuid, load);
+        if (pending != null) {
+            sharedLoads.incrementAndGet();
+            return pending.join();
+        }
+        try {
+            String stored = selectStoredKey(uuid);
+            if (stored != null && generation != null) {
+                SecretCipher current = cipher;
+                // Jamais de clé en clair dans Redis : valeur chiffrée, sinon simple marqueur d'inscription
+                redisCache.put(uuid, stored.isEmpty() ? RedisSecretCache.NOT_ENROLLED
+                    : current != null && current.isEncrypted(stored) ? stored : RedisSecretCache.ENROLLED, generation);
+            }
+            load.complete(stored);
+            return stored;
+        } catch (RuntimeException e) {
+            load.complete(null);
+            throw e;
+        } finally {
+            loadsInFlight.remove(uuid, load);
+        }
+    }
+
+    private String selectStoredKey(UUID uuid) {
+        long start = plugin.getHandlerTimings().begin();
+        databaseReads.incrementAndGet();
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT secret_key FROM two_factor_auth WHERE uuid = ?")) {
+            stmt.setString(1, uuid.toString());
+            ResultSet rs = stmt.executeQuery();
+        
+            if (!rs.next()) {
+                plugin.getLogger().info("Aucune clé secrète trouvée pour " + uuid);
+                return "";
+            }
+            plugin.getLogger().info("Clé secrète récupérée pour " + uuid);
+            return rs.getString("secret_key");
+        } catch (SQLException e) {
+            plugin.getLogger().severe("Erreur lors de la récupération de la clé secrète: " + e.getMessage());
+            plugin.getLogger().severe("Stack trace: " + e.toString());
+            return null;
+        } finally {
+            plugin.getHandlerTimings().backendCall("database.getSecretKey", start);
+        }
+    }
+
+    /**
+     * Rechiffre avec la clé courante une valeur en clair ou chiffrée avec une ancienne version
+     */
+    private void reencrypt(SecretCipher current, UUID uuid, String stored, byte[] secret) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "UPDATE two_factor_auth SET secret_key = ? WHERE uuid = ? AND secret_key = ?")) {
+            String reencrypted = current.encrypt(uuid, new String(secret, StandardCharsets.US_ASCII));
+            stmt.setString(1, reencrypted);
+            stmt.setString(2, uuid.toString());
+            // Ne remplace que la valeur lue : une clé modifiée entre-temps n'est pas écrasée
+            stmt.setString(3, stored);
+            // L'ancienne valeur en cache est retirée ; la nouvelle y sera mise au prochain chargement
+            if (stmt.executeUpdate() > 0 && redisCache != null) {
+                redisCache.discard(uuid);
+            }
+        } catch (SQLException | GeneralSecurityException e) {
+            plugin.getLogger().warning("Impossible de rechiffrer la clé secrète de " + uuid + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Taux de succès de chaque niveau de cache des clés, pour /2fa-admin metrics
+     */
+    public List<String> getSecretCacheStats() {
+        List<String> stats = new ArrayList<>();
+        stats.add(ratio("mémoire", localHits.get(), localMisses.get()));
+        if (redisCache != null) {
+            stats.add(ratio("Redis", redisCache.getHits(), redisCache.getMisses()));
+        }
+        stats.add("base: " + databaseReads.get() + " lecture(s), " + sharedLoads.get() + " chargement(s) partagé(s)");
+        return stats;
+    }
+
+    private static String ratio(String tier, long hits, long misses) {
+        long total = hits + misses;
+        return String.format("%s: %.1f%% (%d/%d)", tier, total == 0 ? 0.0 : hits * 100.0 / total, hits, total);
+    }
+
+    /**
+     * Prépare une clé pour le stockage : chiffrée si le chiffrement est activé, inchangée si déjà chiffrée
+     */
+    public String sealSecretKey(UUID uuid, String secretKey) throws GeneralSecurityException {
+        SecretCipher current = cipher;
+        if (!encryptSecrets || current == null || current.isEncrypted(secretKey)) {
+            return secretKey;
+        }
+        return current.encrypt(uuid, secretKey);
+    }
+
+    /**
+     * Chiffre une clé transmise hors de la base (Redis), quel que soit security.encrypt-secrets ;
+     * null sans trousseau chargé : la clé ne doit alors pas quitter le serveur
+     */
+    public String sealSharedSecret(UUID uuid, String secretKey) throws GeneralSecurityException {
+        SecretCipher current = cipher;
+        return current != null ? current.encrypt(uuid, secretKey) : null;
+    }
+
+    /**
+     * Déchiffre une clé reçue hors de la base, null si elle n'est pas chiffrée ou illisible
+     */
+    public String openSharedSecret(UUID uuid, String sealed) {
+        SecretCipher current = cipher;
+        if (current == null || !current.isEncrypted(sealed)) {
+            return null;
+        }
+        try {
+            return new String(current.decrypt(uuid, sealed), StandardCharsets.US_ASCII);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            plugin.getLogger().warning("Impossible de déchiffrer la clé partagée de " + uuid + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Invalide les clés de joueurs réécrites en dehors de setSecretKey (import) : clé déchiffrée
+     * en mémoire, cache Redis et génération, avec notification des autres serveurs
+     */
+    public void invalidateSecretKeys(Collection<UUID> uuids) {
+        for (UUID uuid : uuids) {
+            evictLocal(uuid);
+            invalidateShared(uuid);
+        }
+    }
+
+    private void invalidateShared(UUID uuid) {
+        if (redisCache != null) {
+            redisCache.invalidate(uuid);
+        }
+    }
+
+    /**
+     * Oublie la clé déchiffrée et les chargements en cours : ceux déjà commencés ne seront pas mis
+     * en cache (version dépassée) et les lectures suivantes ne s'y joignent plus
+     */
+    private void evictLocal(UUID uuid) {
+        loadsInFlight.remove(uuid);
+        secretCache.evict(uuid);
+    }
+
+    private void clearLocal() {
+        loadsInFlight.clear();
+        secretCache.clear();
+    }
+
+    /**
+     * Met en cache une clé chargée si le joueur est connecté et qu'aucune invalidation n'a eu lieu
+     * depuis la version lue avant le chargement
+     */
+    private void cacheIfOnline(UUID uuid, byte[] secret, long version) {
+        if (plugin.getServer().getPlayer(uuid) != null) {
+            secretCache.put(uuid, secret == SecretKeyCache.NOT_ENROLLED ? secret : Arrays.copyOf(secret, secret.length), version);
+        }
+        if (secret != SecretKeyCache.NOT_ENROLLED) {
+            Arrays.fill(secret, (byte) 0);
+        }
+    }
+
+    /**
+     * Retourne, parmi les UUID donnés, ceux qui ont le 2FA activé (requêtes IN groupées)
+     */
+    public Set<UUID> getEnrolled(Collection<UUID> uuids) {
+        Set<UUID> enrolled = new HashSet<>();
+        List<UUID> all = new ArrayList<>(uuids);
+        
+        for (int start = 0; start < all.size(); start += BULK_CHUNK_SIZE) {
+            List<UUID> chunk = all.subList(start, Math.min(start + BULK_CHUNK_SIZE, all.size()));
+            String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT uuid FROM two_factor_auth WHERE uuid IN (" + placeholders + ")")) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i).toString());
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        enrolled.add(UUID.fromString(rs.getString("uuid")));
+                    }
+                }
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Erreur lors de la récupération groupée des clés secrètes: " + e.getMessage());
+                plugin.getLogger().severe("Stack trace: " + e.toString());
+            }
+        }
+        return enrolled;
+    }
+
+    public void setSecretKey(UUID uuid, String secretKey) {
+        long start = plugin.getHandlerTimings().begin();
+        evictLocal(uuid);
+        try {
+            String stored;
+            try {
+                stored = sealSecretKey(uuid, secretKey);
+            } catch (GeneralSecurityException e) {
+                plugin.getLogger().severe("Erreur lors du chiffrement de la clé secrète: " + e.getMessage());
+                return;
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(mysql
+                    ? "INSERT INTO two_factor_auth (uuid, secret_key) VALUES (?, ?) ON DUPLICATE KEY UPDATE secret_key = ?"
+                    : "INSERT INTO two_factor_auth (uuid, secret_key) VALUES (?, ?) ON CONFLICT(uuid) DO UPDATE SET secret_key = ?")) {
+                stmt.setString(1, uuid.toString());
+                stmt.setString(2, stored);
+                stmt.setString(3, stored);
+                stmt.executeUpdate();
+                plugin.getLogger().info("Clé secrète enregistrée pour " + uuid);
+                // Une lecture commencée avant l'écriture a pu se terminer entre les deux évictions
+                evictLocal(uuid);
+                invalidateShared(uuid);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Erreur lors de l'enregistrement de la clé secrète: " + e.getMessage());
+                plugin.getLogger().severe("Stack trace: " + e.toString());
+            }
+        } finally {
+            plugin.getHandlerTimings().backendCall("database.setSecretKey", start);
+        }
+    }
+
+    public void removeSecretKey(UUID uuid) {
+        long start = plugin.getHandlerTimings().begin();
+        evictLocal(uuid);
+        try {
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "DELETE FROM two_factor_auth WHERE uuid = ?")) {
+                stmt.setString(1, uuid.toString());
+                stmt.executeUpdate();
+                plugin.getLogger().info("Clé secrète supprimée pour " + uuid);
+                evictLocal(uuid);
+                invalidateShared(uuid);
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Erreur lors de la suppression de la clé secrète: " + e.getMessage());
+                plugin.getLogger().severe("Stack trace: " + e.toString());
+            }
+        } finally {
+            plugin.getHandlerTimings().backendCall("database.removeSecretKey", start);
+        }
+    }
+} 
\ No newline at end of file
@@ -0,0 +1,241 @@
+package com.security.minecraft2fa.storage;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.security.minecraft2fa.utils.IoExecutor;
+import lombok.RequiredArgsConstructor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Import/export en flux des inscriptions 2FA (table two_factor_auth).
+ *
+ * Le format dépend de l'extension du fichier : .csv ou .ndjson, compressé si suffixé par .gz.
+ * L'export lit la table avec un curseur en avance seule et l'import écrit par lots dans des
+ * transactions découpées : la mémoire utilisée ne dépend pas de la taille de la table.
+ * Les clés sont exportées telles que stockées (chiffrées si le chiffrement est actif) : l'import
+ * sur un autre serveur nécessite le même trousseau. Les clés en clair importées sont chiffrées.
+ */
+@RequiredArgsConstructor
+public class EnrolmentTransfer {
+
+    private static final int SQLITE_FETCH_SIZE = 500;
+    private static final int IMPORT_CHUNK_SIZE = 1000;
+    private static final int PROGRESS_INTERVAL = 5000;
+    private static final String CSV_HEADER = "uuid,secret_key,created_at";
+
+    private final DatabaseManager databaseManager;
+    private final IoExecutor ioExecutor;
+
+    // Ligne lue et validée, en attente d'écriture avec son lot
+    private record ImportRow(UUID uuid, String storedKey, String createdAt) {}
+
+    /**
+     * Exporte toutes les inscriptions vers le fichier, retourne le nombre de lignes écrites
+     */
+    public long export(File file, LongConsumer progress) throws SQLException, IOException {
+        boolean csv = isCsv(file);
+        long count = 0;
+
+        try (Connection connection = databaseManager.openConnection();
+             Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(openOutput(file), StandardCharsets.UTF_8))) {
+            // MySQL ne diffuse les lignes une à une qu'avec une taille de fetch de Integer.MIN_VALUE
+            stmt.setFetchSize(databaseManager.isMySQL() ? Integer.MIN_VALUE : SQLITE_FETCH_SIZE);
+
+            if (csv) {
+                out.write(CSV_HEADER);
+                out.newLine();
+            }
+
+            try (ResultSet rs = stmt.executeQuery("SELECT uuid, secret_key, created_at FROM two_factor_auth")) {
+                while (rs.next()) {
+                    String uuid = rs.getString(1);
+                    String secretKey = rs.getString(2);
+                    String createdAt = rs.getString(3);
+
+                    if (csv) {
+                        out.write(uuid);
+                        out.write(',');
+                        out.write(secretKey);
+                        out.write(',');
+                        out.write(createdAt != null ? createdAt : "");
+                    } else {
+                        JsonObject json = new JsonObject();
+                        json.addProperty("uuid", uuid);
+                        json.addProperty("secret_key", secretKey);
+                        json.addProperty("created_at", createdAt);
+                        out.write(json.toString());
+                    }
+                    out.newLine();
+
+                    if (++count % PROGRESS_INTERVAL == 0) {
+                        progress.accept(count);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Importe les inscriptions du fichier (les existantes sont remplacées), retourne le nombre de lignes importées.
+     *
+     * Le fichier est lu sur le thread appelant ; chaque lot est écrit puis validé par une tâche de la
+     * file DATABASE, sérialisée avec les autres écritures du plugin, et les caches des joueurs du lot
+     * (local et Redis) sont invalidés après la validation.
+     */
+    public long importFrom(File file, LongConsumer progress) throws SQLException, IOException {
+        boolean csv = isCsv(file);
+        String sql = databaseManager.isMySQL()
+            ? "INSERT INTO two_factor_auth (uuid, secret_key, created_at) VALUES (?, ?, COALESCE(?, CURRENT_TIMESTAMP)) "
+                + "ON DUPLICATE KEY UPDATE secret_key = VALUES(secret_key)"
+            : "INSERT INTO two_factor_auth (uuid, secret_key, created_at) VALUES (?, ?, COALESCE(?, CURRENT_TIMESTAMP)) "
+                + "ON CONFLICT(uuid) DO UPDATE SET secret_key = excluded.secret_key";
+        long count = 0;
+        long lineNumber = 0;
+
+        try (Connection connection = databaseManager.openConnection();
+             BufferedReader in = new BufferedReader(new InputStreamReader(openInput(file), StandardCharsets.UTF_8));
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            connection.setAutoCommit(false);
+            List<ImportRow> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+
+            try {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (csv && lineNumber == 1 && line.startsWith("uuid,"))) {
+                        continue;
+                    }
+
+                    String uuid;
+                    String secretKey;
+                    String createdAt;
+                    if (csv) {
+                        String[] fields = line.split(",", -1);
+                        if (fields.length < 2) {
+                            throw new IOException("Ligne " + lineNumber + " invalide");
+                        }
+                        uuid = fields[0].trim();
+                        secretKey = fields[1].trim();
+                        createdAt = fields.length > 2 && !fields[2].isBlank() ? fields[2].trim() : null;
+                    } else {
+                        JsonObject json = new JsonParser().parse(line).getAsJsonObject();
+                        uuid = json.get("uuid").getAsString();
+                        secretKey = json.get("secret_key").getAsString();
+                        JsonElement created = json.get("created_at");
+                        createdAt = created != null && !created.isJsonNull() ? created.getAsString() : null;
+                    }
+
+                    if (secretKey.isEmpty() || secretKey.length() > (secretKey.startsWith("enc:") ? 255 : 32)) {
+                        throw new IOException("Ligne " + lineNumber + ": clé secrète invalide");
+                    }
+                    UUID playerId = UUID.fromString(uuid);
+                    chunk.add(new ImportRow(playerId, databaseManager.sealSecretKey(playerId, secretKey), createdAt));
+                    count++;
+
+                    if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                        writeChunk(connection, stmt, chunk);
+                        chunk.clear();
+                    }
+                    if (count % PROGRESS_INTERVAL == 0) {
+                        progress.accept(count);
+                    }
+                }
+
+                if (!chunk.isEmpty()) {
+                    writeChunk(connection, stmt, chunk);
+                }
+            } catch (RuntimeException | GeneralSecurityException e) {
+                // Seul le lot en cours (pas encore écrit) est abandonné, les lots déjà validés restent en base
+                throw new IOException("Ligne " + lineNumber + " invalide: " + e.getMessage(), e);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Écrit et valide un lot sur la file DATABASE, puis invalide les clés en cache des joueurs du lot
+     */
+    private void writeChunk(Connection connection, PreparedStatement stmt, List<ImportRow> chunk) throws SQLException, IOException {
+        try {
+            ioExecutor.supply(IoExecutor.Category.DATABASE, () -> {
+                try {
+                    for (ImportRow row : chunk) {
+                        stmt.setString(1, row.uuid().toString());
+                        stmt.setString(2, row.storedKey());
+                        if (row.createdAt() != null) {
+                            stmt.setString(3, row.createdAt());
+                        } else {
+                            stmt.setNull(3, Types.VARCHAR);
+                        }
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                    connection.commit();
+                    return null;
+                } catch (SQLException e) {
+                    stmt.clearBatch();
+                    connection.rollback();
+                    throw e;
+                }
+            }).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw new IOException("File d'accès à la base saturée, import interrompu", e.getCause());
+            }
+            throw e;
+        }
+
+        List<UUID> uuids = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            uuids.add(row.uuid());
+        }
+        databaseManager.invalidateSecretKeys(uuids);
+    }
+
+    private boolean isCsv(File file) {
+        String name = file.getName().toLowerCase();
+        return name.endsWith(".csv") || name.endsWith(".csv.gz");
+    }
+
+    private OutputStream openOutput(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        return file.getName().toLowerCase().endsWith(".gz") ? new GZIPOutputStream(out, 65536) : out;
+    }
+
+    private InputStream openInput(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        return file.getName().toLowerCase().endsWith(".gz") ? new GZIPInputStream(in, 65536) : in;
+    }
+}
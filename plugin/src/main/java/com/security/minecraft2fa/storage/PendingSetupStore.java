@@ -0,0 +1,148 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.utils.IoExecutor;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Configurations 2FA en attente de validation (secret généré, code pas encore vérifié).
+ *
+ * Chaque configuration expire après security.setup-timeout minutes. Elle est gardée en mémoire
+ * et, en mode multi-serveur, dans Redis (SET avec expiration) afin que le joueur puisse terminer
+ * sa configuration sur un autre serveur. Une configuration abandonnée disparaît d'elle-même.
+ * Le secret n'est écrit dans Redis que chiffré avec le trousseau des secrets ; sans trousseau, la
+ * configuration reste propre au serveur.
+ */
+public class PendingSetupStore {
+
+    private static final String REDIS_KEY = "2fa:setup:";
+    private static final long PURGE_INTERVAL_TICKS = 20L * 60;
+
+    public record PendingSetup(String secret, boolean qrGenerated, long expiresAt) {
+
+        /**
+         * Valeur Redis : secret chiffré|qr|expiration
+         */
+        String encode(String sealedSecret) {
+            return sealedSecret + "|" + (qrGenerated ? 1 : 0) + "|" + expiresAt;
+        }
+
+        static PendingSetup decode(String value, UnaryOperator<String> open) {
+            String[] fields = value.split("\\|");
+            if (fields.length != 3) {
+                return null;
+            }
+            String secret = open.apply(fields[0]);
+            if (secret == null) {
+                return null;
+            }
+            try {
+                return new PendingSetup(secret, fields[1].equals("1"), Long.parseLong(fields[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private final Minecraft2FAPlugin plugin;
+    private final Map<UUID, PendingSetup> local = new ConcurrentHashMap<>();
+    private BukkitTask purgeTask;
+
+    public PendingSetupStore(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        purgeTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            long now = System.currentTimeMillis();
+            local.values().removeIf(setup -> setup.expiresAt() <= now);
+        }, PURGE_INTERVAL_TICKS, PURGE_INTERVAL_TICKS);
+    }
+
+    public void shutdown() {
+        if (purgeTask != null) {
+            purgeTask.cancel();
+            purgeTask = null;
+        }
+        local.clear();
+    }
+
+    /**
+     * Enregistre une nouvelle configuration en attente (peut appeler Redis : hors du thread principal)
+     */
+    public PendingSetup create(UUID uuid, String secret) {
+        long ttlMillis = Math.max(1, plugin.getConfig().getLong("security.setup-timeout", 10)) * 60000L;
+        PendingSetup setup = new PendingSetup(secret, false, System.currentTimeMillis() + ttlMillis);
+        store(uuid, setup);
+        return setup;
+    }
+
+    /**
+     * Retourne la configuration en attente, null si absente ou expirée (au plus un aller-retour Redis)
+     */
+    public PendingSetup get(UUID uuid) {
+        long now = System.currentTimeMillis();
+        PendingSetup setup = local.get(uuid);
+        if (setup != null) {
+            if (setup.expiresAt() > now) {
+                return setup;
+            }
+            local.remove(uuid, setup);
+        }
+
+        // Configuration commencée sur un autre serveur : lecture sur le primaire pour éviter le retard des réplicas
+        String value = plugin.getSessionManager().redisWrite("lecture de configuration 2FA", jedis -> jedis.get(REDIS_KEY + uuid));
+        setup = value != null ? PendingSetup.decode(value, sealed -> plugin.getDatabaseManager().openSharedSecret(uuid, sealed)) : null;
+        if (setup == null || setup.expiresAt() <= now) {
+            return null;
+        }
+        local.put(uuid, setup);
+        return setup;
+    }
+
+    /**
+     * Note que le QR code de la configuration a été généré
+     */
+    public void markQrGenerated(UUID uuid) {
+        PendingSetup setup = local.get(uuid);
+        if (setup != null && !setup.qrGenerated()) {
+            store(uuid, new PendingSetup(setup.secret(), true, setup.expiresAt()));
+        }
+    }
+
+    /**
+     * Supprime la configuration en attente (l'effacement Redis se fait en arrière-plan)
+     */
+    public void remove(UUID uuid) {
+        local.remove(uuid);
+        if (plugin.getSessionManager().isUsingRedis()) {
+            plugin.getIoExecutor().run(IoExecutor.Category.REDIS, () ->
+                plugin.getSessionManager().redisWrite("suppression de configuration 2FA", jedis -> jedis.del(REDIS_KEY + uuid)));
+        }
+    }
+
+    private void store(UUID uuid, PendingSetup setup) {
+        local.put(uuid, setup);
+        long remaining = setup.expiresAt() - System.currentTimeMillis();
+        if (remaining <= 0 || !plugin.getSessionManager().isUsingRedis()) {
+            return;
+        }
+        String sealed;
+        try {
+            sealed = plugin.getDatabaseManager().sealSharedSecret(uuid, setup.secret());
+        } catch (GeneralSecurityException e) {
+            plugin.getLogger().warning("Impossible de chiffrer la configuration 2FA de " + uuid + ": " + e.getMessage());
+            return;
+        }
+        if (sealed != null) {
+            plugin.getSessionManager().redisWrite("enregistrement de configuration 2FA",
+                jedis -> jedis.psetex(REDIS_KEY + uuid, remaining, setup.encode(sealed)));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import lombok.Getter;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Disjoncteur protégeant les appels Redis.
+ *
+ * CLOSED : les appels passent normalement.
+ * OPEN : les appels échouent immédiatement vers le cache local, une sonde tourne en arrière-plan
+ * avec un délai exponentiel.
+ * HALF_OPEN : la sonde a réussi, un seul appel d'essai est laissé passer à la fois, les autres
+ * échouent toujours immédiatement ; le premier succès referme le disjoncteur, le premier échec le rouvre.
+ */
+public class RedisCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final long MIN_BACKOFF_TICKS = 20L;       // 1 seconde
+    private static final long MAX_BACKOFF_TICKS = 20L * 60L; // 1 minute
+
+    private final Minecraft2FAPlugin plugin;
+    private final BooleanSupplier probe;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    // Appel d'essai en cours à l'état HALF_OPEN
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+
+    // Métriques
+    @Getter
+    private final AtomicLong openTransitions = new AtomicLong();
+    @Getter
+    private final AtomicLong halfOpenTransitions = new AtomicLong();
+    @Getter
+    private final AtomicLong closeTransitions = new AtomicLong();
+    private final AtomicLong totalOpenMillis = new AtomicLong();
+    private volatile long openedAt;
+
+    private volatile long backoffTicks = MIN_BACKOFF_TICKS;
+    private BukkitTask probeTask;
+    private volatile boolean shutdown;
+
+    public RedisCircuitBreaker(Minecraft2FAPlugin plugin, BooleanSupplier probe) {
+        this.plugin = plugin;
+        this.probe = probe;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Indique si Redis est considéré comme joignable, sans réserver d'appel
+     */
+    public boolean isAvailable() {
+        return state.get() != State.OPEN;
+    }
+
+    /**
+     * Autorise un appel Redis (aucun blocage) ; à l'état HALF_OPEN, seul l'appelant qui obtient
+     * l'essai passe et doit ensuite appeler recordSuccess, recordFailure ou releaseTrial
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        return current == State.HALF_OPEN && trialInFlight.compareAndSet(false, true);
+    }
+
+    /**
+     * Signale un appel Redis réussi
+     */
+    public void recordSuccess() {
+        if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            trialInFlight.set(false);
+            onClosed();
+        }
+    }
+
+    /**
+     * Libère l'essai sans conclure (erreur Redis sans rapport avec la connexion)
+     */
+    public void releaseTrial() {
+        trialInFlight.set(false);
+    }
+
+    /**
+     * Signale une erreur de connexion Redis : ouvre le disjoncteur et planifie une sonde
+     */
+    public void recordFailure() {
+        State previous = state.getAndSet(State.OPEN);
+        trialInFlight.set(false);
+        if (previous == State.OPEN) {
+            return;
+        }
+
+        openTransitions.incrementAndGet();
+        if (previous == State.CLOSED) {
+            openedAt = System.currentTimeMillis();
+            backoffTicks = MIN_BACKOFF_TICKS;
+        }
+        plugin.getLogger().warning("Disjoncteur Redis ouvert - Utilisation du cache local (" + previous + " -> OPEN)");
+        scheduleProbe();
+    }
+
+    /**
+     * Durée totale passée à l'état ouvert, en millisecondes
+     */
+    public long getTotalOpenMillis() {
+        long total = totalOpenMillis.get();
+        if (state.get() != State.CLOSED) {
+            total += System.currentTimeMillis() - openedAt;
+        }
+        return total;
+    }
+
+    public void shutdown() {
+        shutdown = true;
+        synchronized (this) {
+            if (probeTask != null) {
+                probeTask.cancel();
+                probeTask = null;
+            }
+        }
+    }
+
+    private synchronized void scheduleProbe() {
+        if (shutdown || !plugin.isEnabled()) {
+            return;
+        }
+        if (probeTask != null) {
+            probeTask.cancel();
+        }
+        long delay = backoffTicks;
+        backoffTicks = Math.min(backoffTicks * 2, MAX_BACKOFF_TICKS);
+        probeTask = plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, this::runProbe, delay);
+    }
+
+    private void runProbe() {
+        if (shutdown) {
+            return;
+        }
+
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return;
+        }
+
+        boolean healthy;
+        try {
+            healthy = probe.getAsBoolean();
+        } catch (Exception e) {
+            healthy = false;
+        }
+
+        if (!healthy) {
+            if (current == State.HALF_OPEN && state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+                trialInFlight.set(false);
+                openTransitions.incrementAndGet();
+            }
+            scheduleProbe();
+            return;
+        }
+
+        if (state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            halfOpenTransitions.incrementAndGet();
+            plugin.getLogger().info("Sonde Redis réussie - Disjoncteur semi-ouvert");
+            scheduleProbe();
+        } else if (state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+            trialInFlight.set(false);
+            onClosed();
+        }
+    }
+
+    private void onClosed() {
+        totalOpenMillis.addAndGet(System.currentTimeMillis() - openedAt);
+        closeTransitions.incrementAndGet();
+        backoffTicks = MIN_BACKOFF_TICKS;
+        plugin.getLogger().info("Connexion Redis rétablie - Disjoncteur fermé");
+    }
+}
@@ -0,0 +1,378 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.scheduler.BukkitTask;
+import redis.clients.jedis.ConnectionPoolConfig;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPooled;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.JedisSentineled;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Accès Redis selon la topologie configurée (standalone, sentinel ou cluster).
+ *
+ * Les écritures et invalidations passent toujours par le primaire ; les lectures peuvent
+ * être routées vers les réplicas si redis.read-from-replicas est activé.
+ *
+ * En mode sentinel, la liste des réplicas est redécouverte à chaque bascule ou changement d'état
+ * annoncé par les Sentinels, et périodiquement (redis.sentinel.refresh-interval) : les réplicas
+ * en panne ou dont la réplication est coupée ne reçoivent plus de lectures.
+ */
+public class RedisConnector {
+
+    public enum Mode { STANDALONE, SENTINEL, CLUSTER }
+
+    // Événements Sentinel qui déclenchent une redécouverte des réplicas
+    private static final String[] SENTINEL_EVENTS = { "+switch-master", "+slave", "+sdown", "-sdown" };
+    private static final long RESUBSCRIBE_DELAY_MILLIS = 5000;
+
+    private final Minecraft2FAPlugin plugin;
+    @Getter
+    private final Mode mode;
+    private final JedisClientConfig clientConfig;
+    private final ConnectionPoolConfig poolConfig;
+
+    private UnifiedJedis primary;
+    private volatile List<JedisPooled> replicas = List.of();
+    private final Map<HostAndPort, JedisPooled> replicaPools = new HashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    // Mode sentinel : nœuds interrogés pour redécouvrir les réplicas
+    private String masterName;
+    private Set<HostAndPort> sentinels = Set.of();
+    private JedisClientConfig sentinelConfig;
+    private volatile boolean running;
+    private volatile Jedis sentinelSubscription;
+    private Thread sentinelListener;
+    private BukkitTask refreshTask;
+
+    public RedisConnector(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+        ConfigurationSection config = plugin.getConfig().getConfigurationSection("redis");
+
+        Mode configuredMode;
+        try {
+            configuredMode = Mode.valueOf(config.getString("mode", "standalone").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Mode Redis inconnu '" + config.getString("mode") + "' - Utilisation du mode standalone");
+            configuredMode = Mode.STANDALONE;
+        }
+        this.mode = configuredMode;
+
+        String password = config.getString("password", "");
+        int timeout = config.getInt("timeout", 2000);
+        DefaultJedisClientConfig.Builder clientBuilder = DefaultJedisClientConfig.builder().timeoutMillis(timeout);
+        if (!password.isEmpty()) {
+            clientBuilder.password(password);
+        }
+        this.clientConfig = clientBuilder.build();
+
+        this.poolConfig = new ConnectionPoolConfig();
+        poolConfig.setMaxTotal(config.getInt("pool.max-total", 8));
+        poolConfig.setMaxIdle(config.getInt("pool.max-idle", 8));
+        poolConfig.setMinIdle(config.getInt("pool.min-idle", 0));
+        poolConfig.setTestOnBorrow(true);
+        poolConfig.setTestOnReturn(true);
+        poolConfig.setTestWhileIdle(true);
+        poolConfig.setMinEvictableIdleTime(Duration.ofMillis(60000));
+        poolConfig.setTimeBetweenEvictionRuns(Duration.ofMillis(30000));
+        poolConfig.setNumTestsPerEvictionRun(3);
+        // Ne jamais attendre une connexion libre : un pool saturé échoue immédiatement
+        poolConfig.setBlockWhenExhausted(false);
+    }
+
+    /**
+     * Crée les pools de connexions selon la topologie configurée
+     */
+    public void connect() {
+        ConfigurationSection config = plugin.getConfig().getConfigurationSection("redis");
+        plugin.getLogger().info("Topologie Redis: " + mode + " (pool: max-total=" + poolConfig.getMaxTotal()
+            + ", max-idle=" + poolConfig.getMaxIdle() + ", min-idle=" + poolConfig.getMinIdle() + ")");
+
+        running = true;
+        switch (mode) {
+            case SENTINEL -> {
+                masterName = config.getString("sentinel.master-name", "mymaster");
+                sentinels = parseNodes(config.getStringList("sentinel.nodes"));
+                sentinelConfig = DefaultJedisClientConfig.builder()
+                    .timeoutMillis(clientConfig.getSocketTimeoutMillis())
+                    .build();
+                primary = new JedisSentineled(masterName, clientConfig, poolConfig, sentinels, sentinelConfig);
+                if (config.getBoolean("read-from-replicas", false)) {
+                    refreshReplicas();
+                    watchSentinels(config.getLong("sentinel.refresh-interval", 30));
+                }
+            }
+            case CLUSTER -> {
+                Set<HostAndPort> nodes = parseNodes(config.getStringList("cluster.nodes"));
+                primary = new JedisCluster(nodes, clientConfig, config.getInt("cluster.max-attempts", 3), poolConfig);
+            }
+            default -> {
+                String host = config.getString("host", "localhost");
+                int port = config.getInt("port", 6379);
+                primary = new JedisPooled(new HostAndPort(host, port), clientConfig, poolConfig);
+                if (config.getBoolean("read-from-replicas", false)) {
+                    updateReplicas(parseNodes(config.getStringList("replicas")));
+                }
+            }
+        }
+    }
+
+    /**
+     * Redécouvre les réplicas auprès des Sentinels et met à jour ceux qui reçoivent les lectures.
+     * Sans réponse d'aucun Sentinel, la liste actuelle est conservée.
+     */
+    void refreshReplicas() {
+        Set<HostAndPort> nodes = discoverSentinelReplicas();
+        if (nodes != null) {
+            updateReplicas(nodes);
+        }
+    }
+
+    int getReplicaCount() {
+        return replicas.size();
+    }
+
+    /**
+     * Exécute une écriture (ou une lecture devant être cohérente) sur le primaire
+     */
+    public <T> T write(Function<UnifiedJedis, T> call) {
+        long start = plugin.getHandlerTimings().begin();
+        try {
+            return call.apply(primary);
+        } catch (JedisException e) {
+            throw asConnectionFailure(e);
+        } finally {
+            plugin.getHandlerTimings().backendCall("redis.write", start);
+        }
+    }
+
+    /**
+     * Exécute une lecture sur un réplica si disponible, sinon sur le primaire
+     */
+    public <T> T read(Function<UnifiedJedis, T> call) {
+        long start = plugin.getHandlerTimings().begin();
+        try {
+            return readFromReplicaOrPrimary(call);
+        } catch (JedisException e) {
+            throw asConnectionFailure(e);
+        } finally {
+            plugin.getHandlerTimings().backendCall("redis.read", start);
+        }
+    }
+
+    /**
+     * Une connexion du pool qui ne répond pas au PING de validation (délai dépassé) est signalée
+     * par le pool comme une erreur générique : elle est requalifiée en erreur de connexion.
+     * Un pool simplement saturé reste une erreur générique.
+     */
+    private static JedisException asConnectionFailure(JedisException e) {
+        if (!(e instanceof JedisConnectionException) && e.getCause() instanceof NoSuchElementException cause
+                && !"Pool exhausted".equals(cause.getMessage())) {
+            return new JedisConnectionException(e.getMessage(), e);
+        }
+        return e;
+    }
+
+    private <T> T readFromReplicaOrPrimary(Function<UnifiedJedis, T> call) {
+        List<JedisPooled> current = replicas;
+        if (!current.isEmpty()) {
+            JedisPooled replica = current.get(Math.floorMod(nextReplica.getAndIncrement(), current.size()));
+            try {
+                return call.apply(replica);
+            } catch (Exception e) {
+                // Réplica indisponible : la lecture se rabat sur le primaire
+            }
+        }
+        return call.apply(primary);
+    }
+
+    /**
+     * Abonnement bloquant sur le primaire, jusqu'à la désinscription ou une erreur de connexion
+     * (non mesuré : la durée d'un abonnement n'est pas un temps d'appel)
+     */
+    public void subscribe(JedisPubSub listener, String... channels) {
+        primary.subscribe(listener, channels);
+    }
+
+    /**
+     * Sonde de santé du primaire
+     */
+    public boolean ping() {
+        if (primary == null) {
+            return false;
+        }
+        primary.exists("2fa:probe");
+        return true;
+    }
+
+    public void close() {
+        running = false;
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+        Jedis subscription = sentinelSubscription;
+        if (subscription != null) {
+            subscription.close();
+        }
+        if (sentinelListener != null) {
+            sentinelListener.interrupt();
+            sentinelListener = null;
+        }
+        synchronized (replicaPools) {
+            replicaPools.values().forEach(JedisPooled::close);
+            replicaPools.clear();
+            replicas = List.of();
+        }
+        if (primary != null) {
+            primary.close();
+            primary = null;
+        }
+    }
+
+    private Set<HostAndPort> parseNodes(List<String> nodes) {
+        Set<HostAndPort> result = new HashSet<>();
+        for (String node : nodes) {
+            try {
+                result.add(HostAndPort.from(node.trim()));
+            } catch (Exception e) {
+                plugin.getLogger().warning("Adresse de nœud Redis invalide ignorée: " + node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Réplicas sains annoncés par le premier Sentinel joignable, null si aucun ne répond
+     */
+    private Set<HostAndPort> discoverSentinelReplicas() {
+        for (HostAndPort sentinel : sentinels) {
+            try (Jedis jedis = new Jedis(sentinel, sentinelConfig)) {
+                Set<HostAndPort> result = new HashSet<>();
+                for (Map<String, String> replica : jedis.sentinelReplicas(masterName)) {
+                    String flags = replica.getOrDefault("flags", "");
+                    boolean linkDown = flags.contains("master_link_down")
+                        || !"ok".equals(replica.getOrDefault("master-link-status", "ok"));
+                    if (!flags.contains("s_down") && !flags.contains("o_down") && !flags.contains("disconnected") && !linkDown) {
+                        result.add(new HostAndPort(replica.get("ip"), Integer.parseInt(replica.get("port"))));
+                    }
+                }
+                return result;
+            } catch (Exception e) {
+                plugin.getLogger().warning("Sentinel " + sentinel + " injoignable pour la découverte des réplicas: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Remplace les réplicas utilisés en lecture : les pools des nœuds conservés sont réutilisés,
+     * ceux des nœuds retirés sont fermés
+     */
+    private void updateReplicas(Set<HostAndPort> nodes) {
+        synchronized (replicaPools) {
+            if (!running) {
+                return;
+            }
+            boolean changed = replicaPools.keySet().removeIf(node -> {
+                if (nodes.contains(node)) {
+                    return false;
+                }
+                replicaPools.get(node).close();
+                return true;
+            });
+            for (HostAndPort node : nodes) {
+                if (!replicaPools.containsKey(node)) {
+                    replicaPools.put(node, new JedisPooled(node, clientConfig, poolConfig));
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                return;
+            }
+            replicas = List.copyOf(replicaPools.values());
+        }
+        if (replicas.isEmpty()) {
+            plugin.getLogger().warning("Aucun réplica Redis disponible - Lectures de sessions sur le primaire");
+        } else {
+            plugin.getLogger().info("Lectures de sessions routées vers " + replicas.size() + " réplica(s)");
+        }
+    }
+
+    /**
+     * Redécouverte périodique des réplicas et écoute des événements Sentinel sur un thread dédié
+     */
+    private void watchSentinels(long intervalSeconds) {
+        if (intervalSeconds > 0) {
+            long ticks = intervalSeconds * 20;
+            refreshTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::refreshReplicas, ticks, ticks);
+        }
+        sentinelListener = new Thread(this::listenSentinels, "Minecraft2FA-SentinelReplicas");
+        sentinelListener.setDaemon(true);
+        sentinelListener.start();
+    }
+
+    private void listenSentinels() {
+        boolean resubscribe = false;
+        while (running) {
+            for (HostAndPort sentinel : sentinels) {
+                if (!running) {
+                    return;
+                }
+                // Des événements ont pu être manqués pendant la coupure
+                if (resubscribe) {
+                    refreshReplicas();
+                }
+                try (Jedis jedis = new Jedis(sentinel, sentinelConfig)) {
+                    sentinelSubscription = jedis;
+                    // close() a pu passer avant l'enregistrement de la connexion
+                    if (!running) {
+                        return;
+                    }
+                    jedis.subscribe(new JedisPubSub() {
+                        @Override
+                        public void onMessage(String channel, String message) {
+                            refreshReplicas();
+                        }
+                    }, SENTINEL_EVENTS);
+                } catch (Exception e) {
+                    if (running) {
+                        plugin.getLogger().fine("Écoute du Sentinel " + sentinel + " interrompue: " + e.getMessage());
+                    }
+                } finally {
+                    sentinelSubscription = null;
+                }
+                resubscribe = true;
+
+                try {
+                    Thread.sleep(RESUBSCRIBE_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            if (sentinels.isEmpty()) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import redis.clients.jedis.JedisPubSub;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Second niveau de cache des inscriptions 2FA, partagé entre serveurs via Redis.
+ *
+ * Seules des valeurs sans secret exploitable y sont écrites : la valeur chiffrée telle que stockée
+ * en base, ou un simple marqueur d'inscription si le chiffrement est désactivé. Chaque entrée expire
+ * après redis.secret-cache-ttl secondes. Une modification supprime l'entrée et publie l'UUID sur un
+ * canal : chaque serveur oublie alors sa clé déchiffrée en mémoire.
+ *
+ * Chaque modification incrémente aussi une génération par joueur. Une valeur lue en base n'est mise
+ * en cache que si la génération n'a pas changé depuis la lecture du cache qui a précédé la requête :
+ * un chargement lent ne peut pas réécrire un état antérieur à une modification (marqueur « non
+ * inscrit » posé juste après une inscription). Les deux clés partagent un hash tag (Redis Cluster).
+ */
+class RedisSecretCache {
+
+    static final String NOT_ENROLLED = "-";
+    static final String ENROLLED = "+";
+
+    private static final String KEY = "2fa:secret:";
+    private static final String GENERATION_KEY = "2fa:secret-gen:";
+    private static final String CHANNEL = "2fa:secret-invalidate";
+    // Doit dépasser la durée de tout chargement en base : une génération expirée repart de zéro
+    private static final long GENERATION_TTL_SECONDS = 86400;
+    // SET conditionné à la génération lue avant le chargement (atomique côté serveur)
+    private static final String PUT_IF_GENERATION = """
+        if (redis.call('GET', KEYS[2]) or '0') == ARGV[1] then
+            return redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+        end
+        return false
+        """;
+
+    /**
+     * Lecture du cache : valeur (null si absente) et génération à fournir à {@link #put}
+     */
+    record Lookup(String value, String generation) {}
+    private static final long RESUBSCRIBE_DELAY_MILLIS = 5000;
+
+    private final Minecraft2FAPlugin plugin;
+    private final long ttlSeconds;
+    private final Consumer<UUID> evict;
+    private final Runnable evictAll;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile boolean running;
+    private volatile JedisPubSub subscription;
+    private Thread listener;
+
+    RedisSecretCache(Minecraft2FAPlugin plugin, Consumer<UUID> evict, Runnable evictAll) {
+        this.plugin = plugin;
+        this.ttlSeconds = Math.max(1, plugin.getConfig().getLong("redis.secret-cache-ttl", 3600));
+        this.evict = evict;
+        this.evictAll = evictAll;
+    }
+
+    /**
+     * Valeur en cache et génération courante, null si Redis indisponible (lecture sur le primaire,
+     * invalidé de façon synchrone)
+     */
+    Lookup get(UUID uuid) {
+        List<String> values = plugin.getSessionManager().redisWrite("lecture du cache des clés 2FA",
+            jedis -> jedis.mget(key(uuid), generationKey(uuid)));
+        if (values == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        (values.get(0) != null ? hits : misses).incrementAndGet();
+        return new Lookup(values.get(0), values.get(1) != null ? values.get(1) : "0");
+    }
+
+    /**
+     * Met en cache une valeur lue en base, sauf si une modification a eu lieu depuis la lecture de la génération
+     */
+    void put(UUID uuid, String value, String generation) {
+        plugin.getSessionManager().redisWrite("écriture du cache des clés 2FA",
+            jedis -> jedis.eval(PUT_IF_GENERATION, List.of(key(uuid), generationKey(uuid)),
+                List.of(generation, value, Long.toString(ttlSeconds))));
+    }
+
+    /**
+     * Supprime l'entrée sans prévenir les autres serveurs (valeur rechiffrée : le secret n'a pas changé)
+     */
+    void discard(UUID uuid) {
+        plugin.getSessionManager().redisWrite("invalidation du cache des clés 2FA", jedis -> jedis.del(key(uuid)));
+    }
+
+    /**
+     * Change de génération, supprime l'entrée et prévient les autres serveurs
+     */
+    void invalidate(UUID uuid) {
+        plugin.getSessionManager().redisWrite("invalidation du cache des clés 2FA", jedis -> {
+            jedis.incr(generationKey(uuid));
+            jedis.expire(generationKey(uuid), GENERATION_TTL_SECONDS);
+            jedis.del(key(uuid));
+            return jedis.publish(CHANNEL, uuid.toString());
+        });
+    }
+
+    /**
+     * Démarre l'écoute des invalidations sur un thread dédié (un abonnement occupe une connexion)
+     */
+    void start() {
+        running = true;
+        listener = new Thread(this::listen, "Minecraft2FA-SecretInvalidation");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    void stop() {
+        running = false;
+        JedisPubSub current = subscription;
+        if (current != null && current.isSubscribed()) {
+            current.unsubscribe();
+        }
+        if (listener != null) {
+            listener.interrupt();
+            listener = null;
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+
+    private static String key(UUID uuid) {
+        return KEY + "{" + uuid + "}";
+    }
+
+    private static String generationKey(UUID uuid) {
+        return GENERATION_KEY + "{" + uuid + "}";
+    }
+
+    private void listen() {
+        boolean resubscribe = false;
+        while (running) {
+            boolean reconnecting = resubscribe;
+            JedisPubSub pubSub = new JedisPubSub() {
+                @Override
+                public void onSubscribe(String channel, int subscribedChannels) {
+                    // Des invalidations ont pu être manquées pendant la coupure : tout le cache local est oublié
+                    if (reconnecting) {
+                        evictAll.run();
+                    }
+                }
+
+                @Override
+                public void onMessage(String channel, String message) {
+                    try {
+                        evict.accept(UUID.fromString(message));
+                    } catch (IllegalArgumentException e) {
+                        plugin.getLogger().warning("Invalidation de clé 2FA invalide reçue: " + message);
+                    }
+                }
+            };
+            subscription = pubSub;
+
+            try {
+                plugin.getSessionManager().redisSubscribe(pubSub, CHANNEL);
+            } catch (Exception e) {
+                if (running) {
+                    plugin.getLogger().fine("Écoute des invalidations de clés 2FA interrompue: " + e.getMessage());
+                }
+            }
+            resubscribe = true;
+
+            if (running) {
+                try {
+                    Thread.sleep(RESUBSCRIBE_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+}
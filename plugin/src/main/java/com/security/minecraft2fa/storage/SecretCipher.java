@@ -0,0 +1,136 @@
+package com.security.minecraft2fa.storage;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Chiffrement AES-GCM des clés secrètes 2FA stockées en base.
+ *
+ * Les clés de chiffrement sont lues depuis un trousseau (une ligne "version:clé en base64" par clé) ;
+ * la version la plus élevée chiffre, les autres ne servent qu'à relire les anciennes valeurs.
+ * Valeur stockée : "enc:v<version>:" suivi de base64(IV || texte chiffré || tag). L'UUID du joueur
+ * est authentifié avec la valeur, qui ne peut donc pas être recopiée sur une autre ligne.
+ */
+public class SecretCipher {
+
+    private static final String PREFIX = "enc:v";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final Map<Integer, SecretKeySpec> keys = new TreeMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private final int currentVersion;
+
+    private SecretCipher(Map<Integer, SecretKeySpec> keys) {
+        this.keys.putAll(keys);
+        this.currentVersion = ((TreeMap<Integer, SecretKeySpec>) this.keys).lastKey();
+    }
+
+    /**
+     * Charge le trousseau, en créant une première clé si le fichier n'existe pas
+     */
+    public static SecretCipher load(Path keyFile) throws IOException {
+        if (!Files.exists(keyFile)) {
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            Files.createDirectories(keyFile.getParent());
+            Files.writeString(keyFile, "1:" + Base64.getEncoder().encodeToString(key) + System.lineSeparator(), StandardCharsets.US_ASCII);
+            try {
+                Files.setPosixFilePermissions(keyFile, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException e) {
+                // Système de fichiers non POSIX (Windows)
+            }
+        }
+
+        Map<Integer, SecretKeySpec> keys = new TreeMap<>();
+        for (String line : Files.readAllLines(keyFile, StandardCharsets.US_ASCII)) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int separator = line.indexOf(':');
+            if (separator <= 0) {
+                throw new IOException("Ligne invalide dans le trousseau " + keyFile.getFileName());
+            }
+            byte[] key = Base64.getDecoder().decode(line.substring(separator + 1));
+            if (key.length != 32) {
+                throw new IOException("Clé de " + key.length + " octets dans le trousseau (32 attendus)");
+            }
+            keys.put(Integer.parseInt(line.substring(0, separator)), new SecretKeySpec(key, "AES"));
+        }
+        if (keys.isEmpty()) {
+            throw new IOException("Trousseau " + keyFile.getFileName() + " vide");
+        }
+        return new SecretCipher(keys);
+    }
+
+    public boolean isEncrypted(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+
+    /**
+     * Vrai si la valeur est en clair ou chiffrée avec une ancienne version de clé
+     */
+    public boolean needsReencryption(String stored) {
+        return !stored.startsWith(PREFIX + currentVersion + ":");
+    }
+
+    public String encrypt(UUID uuid, String secret) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, keys.get(currentVersion), new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(aad(uuid));
+        byte[] encrypted = cipher.doFinal(secret.getBytes(StandardCharsets.US_ASCII));
+
+        byte[] payload = ByteBuffer.allocate(IV_LENGTH + encrypted.length).put(iv).put(encrypted).array();
+        return PREFIX + currentVersion + ":" + Base64.getEncoder().encodeToString(payload);
+    }
+
+    /**
+     * Déchiffre une valeur stockée ; une valeur en clair (avant migration) est retournée telle quelle
+     */
+    public byte[] decrypt(UUID uuid, String stored) throws GeneralSecurityException {
+        if (!isEncrypted(stored)) {
+            return stored.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        int separator = stored.indexOf(':', PREFIX.length());
+        SecretKeySpec key = separator > 0 ? keys.get(Integer.parseInt(stored.substring(PREFIX.length(), separator))) : null;
+        if (key == null) {
+            throw new GeneralSecurityException("Version de clé inconnue: " + stored.substring(0, Math.max(separator, 0)));
+        }
+
+        byte[] payload = Base64.getDecoder().decode(stored.substring(separator + 1));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, payload, 0, IV_LENGTH));
+        cipher.updateAAD(aad(uuid));
+        return cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH);
+    }
+
+    public List<Integer> getVersions() {
+        return new ArrayList<>(keys.keySet());
+    }
+
+    private static byte[] aad(UUID uuid) {
+        return ByteBuffer.allocate(16)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+    }
+}
@@ -0,0 +1,105 @@
+package com.security.minecraft2fa.storage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cache borné des clés secrètes déchiffrées des joueurs connectés.
+ *
+ * Les entrées les moins récemment utilisées sont évincées au-delà de la capacité ; toute entrée
+ * retirée (éviction, invalidation, déconnexion) est remise à zéro avant d'être oubliée.
+ *
+ * Chaque invalidation d'un joueur est datée par une horloge logique. Une clé chargée n'est mise en
+ * cache que si aucune invalidation de ce joueur n'a eu lieu depuis la version lue avant le
+ * chargement : un chargement lent ne peut pas remettre une clé remplacée ou révoquée. Au-delà de
+ * la capacité, les dates les plus anciennes sont oubliées et les chargements antérieurs refusés.
+ */
+final class SecretKeyCache {
+
+    // Marqueur « pas de 2FA » : un tableau vide, qu'il n'y a pas besoin d'effacer
+    static final byte[] NOT_ENROLLED = new byte[0];
+
+    private final Map<UUID, byte[]> entries;
+    // Date de la dernière invalidation de chaque joueur, par ordre d'invalidation
+    private final Map<UUID, Long> invalidations;
+    private long clock;
+    // Versions antérieures à une date oubliée : refusées par précaution
+    private long forgottenBefore;
+
+    SecretKeyCache(int capacity) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, byte[]> eldest) {
+                if (size() > capacity) {
+                    Arrays.fill(eldest.getValue(), (byte) 0);
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidations = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                if (size() > capacity) {
+                    forgottenBefore = Math.max(forgottenBefore, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Version courante, à lire avant un chargement et à passer à {@link #put}
+     */
+    synchronized long version() {
+        return clock;
+    }
+
+    /**
+     * Retourne la clé en cache sous forme de texte, "" si le joueur n'a pas le 2FA, null si absente du cache
+     */
+    synchronized String lookup(UUID uuid) {
+        byte[] secret = entries.get(uuid);
+        if (secret == null) {
+            return null;
+        }
+        return new String(secret, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Met la clé en cache, sauf si le joueur a été invalidé depuis la version donnée (la clé est alors effacée)
+     */
+    synchronized boolean put(UUID uuid, byte[] secret, long version) {
+        if (version < forgottenBefore || invalidations.getOrDefault(uuid, 0L) > version) {
+            Arrays.fill(secret, (byte) 0);
+            return false;
+        }
+        byte[] previous = entries.put(uuid, secret);
+        if (previous != null && previous != secret) {
+            Arrays.fill(previous, (byte) 0);
+        }
+        return true;
+    }
+
+    synchronized void evict(UUID uuid) {
+        byte[] previous = entries.remove(uuid);
+        if (previous != null) {
+            Arrays.fill(previous, (byte) 0);
+        }
+        invalidations.remove(uuid);
+        invalidations.put(uuid, ++clock);
+    }
+
+    synchronized void clear() {
+        for (byte[] secret : entries.values()) {
+            Arrays.fill(secret, (byte) 0);
+        }
+        entries.clear();
+        invalidations.clear();
+        forgottenBefore = ++clock;
+    }
+}
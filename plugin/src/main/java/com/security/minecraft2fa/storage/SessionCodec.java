@@ -0,0 +1,90 @@
+package com.security.minecraft2fa.storage;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Encodage binaire compact des sessions Redis.
+ *
+ * Clé : préfixe "2fa:s:" suivi des 16 octets de l'UUID.
+ * Valeur : version (byte), nombre d'IP (byte), puis pour chaque IP : longueur (byte, 4 ou 16),
+ * octets de l'adresse, expiration en secondes epoch (int non signé).
+ */
+final class SessionCodec {
+
+    private static final byte VERSION = 1;
+    private static final byte[] KEY_PREFIX = "2fa:s:".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * IP de confiance d'un joueur et date d'expiration de la session associée (millisecondes)
+     */
+    record TrustedIp(String ip, long expiresAt) {}
+
+    private SessionCodec() {
+    }
+
+    static byte[] key(UUID uuid) {
+        return ByteBuffer.allocate(KEY_PREFIX.length + 16)
+            .put(KEY_PREFIX)
+            .putLong(uuid.getMostSignificantBits())
+            .putLong(uuid.getLeastSignificantBits())
+            .array();
+    }
+
+    static byte[] encode(List<TrustedIp> ips) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 + ips.size() * (1 + 16 + 4));
+        buffer.put(VERSION);
+        int countPosition = buffer.position();
+        buffer.put((byte) 0);
+
+        int count = 0;
+        for (TrustedIp trusted : ips) {
+            byte[] address;
+            try {
+                address = InetAddress.getByName(trusted.ip()).getAddress();
+            } catch (UnknownHostException e) {
+                continue;
+            }
+            buffer.put((byte) address.length);
+            buffer.put(address);
+            buffer.putInt((int) (trusted.expiresAt() / 1000));
+            count++;
+        }
+        buffer.put(countPosition, (byte) count);
+
+        byte[] value = new byte[buffer.position()];
+        buffer.flip();
+        buffer.get(value);
+        return value;
+    }
+
+    /**
+     * Décode une valeur, liste vide si le format est inconnu
+     */
+    static List<TrustedIp> decode(byte[] value) {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        if (buffer.remaining() < 2 || buffer.get() != VERSION) {
+            return Collections.emptyList();
+        }
+
+        int count = buffer.get() & 0xFF;
+        List<TrustedIp> ips = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                byte[] address = new byte[buffer.get()];
+                buffer.get(address);
+                long expiresAt = (buffer.getInt() & 0xFFFFFFFFL) * 1000;
+                ips.add(new TrustedIp(InetAddress.getByAddress(address).getHostAddress(), expiresAt));
+            }
+        } catch (RuntimeException | UnknownHostException e) {
+            return Collections.emptyList();
+        }
+        return ips;
+    }
+}
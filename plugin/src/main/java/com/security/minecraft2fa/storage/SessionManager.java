@@ -0,0 +1,477 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+import redis.clients.jedis.JedisPubSub;
+import redis.clients.jedis.UnifiedJedis;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.params.SetParams;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+@RequiredArgsConstructor
+public class SessionManager {
+    private final Minecraft2FAPlugin plugin;
+    // Initialisés en arrière-plan au démarrage
+    private volatile RedisConnector redis;
+    private volatile boolean useRedis;
+    
+    // Disjoncteur Redis : en cas de panne, les appels basculent sans blocage sur le cache local
+    @Getter
+    private volatile RedisCircuitBreaker circuitBreaker;
+    
+    // Cache local des sessions avec timestamp de dernière vérification
+    private final Map<UUID, CachedSession> sessionCache = new ConcurrentHashMap<>();
+    private static final long CACHE_DURATION = 3600000; // 1 heure en millisecondes
+    
+    // Snapshot des sessions pour le mode standalone (survit aux redémarrages)
+    private SessionSnapshot snapshot;
+    private BukkitTask snapshotTask;
+    private final AtomicBoolean snapshotDirty = new AtomicBoolean(false);
+    
+    // Ancien format Redis (une clé texte par joueur contenant une seule IP), relu pendant la migration
+    private static final String LEGACY_KEY = "2fa:session:";
+    private static final String FORMAT_KEY = "2fa:session-format";
+    private volatile long legacyUntil;
+    
+    private static class CachedSession {
+        final List<SessionCodec.TrustedIp> ips;
+        final long lastCheck;
+        
+        CachedSession(List<SessionCodec.TrustedIp> ips) {
+            this.ips = ips;
+            this.lastCheck = System.currentTimeMillis();
+        }
+        
+        boolean trusts(String ip, long now) {
+            for (SessionCodec.TrustedIp trusted : ips) {
+                if (trusted.expiresAt() > now && trusted.ip().equals(ip)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    /**
+     * Ajoute (ou prolonge) une IP de confiance en conservant les sessions.max-trusted-ips plus récentes
+     */
+    private List<SessionCodec.TrustedIp> withIp(List<SessionCodec.TrustedIp> current, String ip, long expiresAt) {
+        long now = System.currentTimeMillis();
+        List<SessionCodec.TrustedIp> ips = new ArrayList<>(current.size() + 1);
+        ips.add(new SessionCodec.TrustedIp(ip, expiresAt));
+        for (SessionCodec.TrustedIp trusted : current) {
+            if (trusted.expiresAt() > now && !trusted.ip().equals(ip)) {
+                ips.add(trusted);
+            }
+        }
+        ips.sort(Comparator.comparingLong(SessionCodec.TrustedIp::expiresAt).reversed());
+        int max = Math.max(1, plugin.getConfig().getInt("sessions.max-trusted-ips", 3));
+        return ips.size() > max ? List.copyOf(ips.subList(0, max)) : List.copyOf(ips);
+    }
+    
+    private List<SessionCodec.TrustedIp> cachedIps(UUID uuid) {
+        CachedSession cached = sessionCache.get(uuid);
+        return cached != null ? cached.ips : List.of();
+    }
+
+    public void initialize() {
+        plugin.getLogger().info("Initialisation du SessionManager...");
+        useRedis = plugin.getConfig().getBoolean("redis.enabled", false);
+        
+        if (!useRedis) {
+            plugin.getLogger().info("Redis est désactivé dans la configuration - Mode standalone activé");
+            initializeSnapshot();
+            return;
+        }
+
+        plugin.getLogger().info("Redis est activé dans la configuration - Tentative de connexion...");
+        String password = plugin.getConfig().getString("redis.password", "");
+        plugin.getLogger().info("Configuration Redis: mode=" + plugin.getConfig().getString("redis.mode", "standalone")
+            + ", host=" + plugin.getConfig().getString("redis.host", "localhost")
+            + ", port=" + plugin.getConfig().getInt("redis.port", 6379)
+            + ", password=" + (password.isEmpty() ? "non" : "oui"));
+
+        try {
+            plugin.getLogger().info("Création du pool de connexions Redis...");
+            redis = new RedisConnector(plugin);
+            redis.connect();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Erreur lors de la création du pool Redis: " + e.getMessage());
+            plugin.getLogger().warning("Le plugin fonctionnera en mode standalone");
+            if (redis != null) {
+                redis.close();
+                redis = null;
+            }
+            return;
+        }
+        circuitBreaker = new RedisCircuitBreaker(plugin, redis::ping);
+
+        try {
+            // Test de la connexion et d'écriture/lecture sur le primaire
+            plugin.getLogger().info("Test de la connexion Redis...");
+            redis.write(jedis -> {
+                String testKey = "2fa:test:connection";
+                jedis.set(testKey, "test");
+                jedis.get(testKey);
+                jedis.del(testKey);
+                return null;
+            });
+            plugin.getLogger().info("Connexion Redis établie avec succès!");
+            plugin.getLogger().info("Les sessions seront partagées entre les serveurs");
+            
+            // Les clés de l'ancien format sont relues jusqu'à leur expiration naturelle, au plus
+            // redis.session-expiry après le premier démarrage avec le format binaire
+            long now = System.currentTimeMillis();
+            String since = redis.write(jedis -> {
+                jedis.setnx(FORMAT_KEY, Long.toString(now));
+                return jedis.get(FORMAT_KEY);
+            });
+            legacyUntil = Long.parseLong(since) + sessionExpirySeconds() * 1000L;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Erreur lors de la connexion à Redis: " + e.getMessage());
+            plugin.getLogger().severe("Stack trace: " + e.toString());
+            plugin.getLogger().warning("Le plugin fonctionnera en mode standalone jusqu'à ce que Redis soit disponible");
+            circuitBreaker.recordFailure();
+        }
+    }
+
+    /**
+     * Indique si un appel Redis peut être tenté sans bloquer (réserve l'essai à l'état HALF_OPEN)
+     */
+    private boolean redisAllowed() {
+        RedisCircuitBreaker breaker = circuitBreaker;
+        return useRedis && redis != null && breaker != null && breaker.allowRequest();
+    }
+
+    /**
+     * Gère une erreur de connexion Redis : ouvre le disjoncteur sans tentative bloquante
+     */
+    private void onRedisConnectionFailure(String context, Exception e) {
+        plugin.getLogger().severe(context + ": " + e.getMessage());
+        circuitBreaker.recordFailure();
+    }
+
+    /**
+     * Restaure les sessions du snapshot local et planifie son écriture périodique
+     */
+    private void initializeSnapshot() {
+        if (!plugin.getConfig().getBoolean("sessions.persist", true)) {
+            return;
+        }
+
+        snapshot = new SessionSnapshot(new File(plugin.getDataFolder(), "sessions.dat").toPath());
+        try {
+            List<SessionSnapshot.Entry> entries = snapshot.load(System.currentTimeMillis());
+            for (SessionSnapshot.Entry entry : entries) {
+                sessionCache.put(entry.uuid(), new CachedSession(withIp(cachedIps(entry.uuid()), entry.ip(), entry.expiresAt())));
+            }
+            plugin.getLogger().info(entries.size() + " session(s) restaurée(s) depuis le snapshot local");
+        } catch (Exception e) {
+            plugin.getLogger().warning("Impossible de lire le snapshot des sessions: " + e.getMessage());
+        }
+
+        long interval = Math.max(1, plugin.getConfig().getLong("sessions.snapshot-interval", 60)) * 20L;
+        snapshotTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+            if (snapshotDirty.getAndSet(false)) {
+                saveSnapshot();
+            }
+        }, interval, interval);
+    }
+
+    /**
+     * Écrit l'état actuel des sessions dans le snapshot local
+     */
+    private synchronized void saveSnapshot() {
+        if (snapshot == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<SessionSnapshot.Entry> entries = new ArrayList<>(sessionCache.size());
+        sessionCache.forEach((uuid, session) -> {
+            for (SessionCodec.TrustedIp trusted : session.ips) {
+                if (trusted.expiresAt() > now) {
+                    entries.add(new SessionSnapshot.Entry(uuid, trusted.ip(), trusted.expiresAt()));
+                }
+            }
+        });
+
+        try {
+            snapshot.save(entries);
+        } catch (Exception e) {
+            snapshotDirty.set(true);
+            plugin.getLogger().warning("Impossible d'écrire le snapshot des sessions: " + e.getMessage());
+        }
+    }
+
+    public void close() {
+        if (circuitBreaker != null) {
+            circuitBreaker.shutdown();
+        }
+        if (snapshotTask != null) {
+            snapshotTask.cancel();
+            snapshotTask = null;
+        }
+        saveSnapshot();
+        
+        if (redis != null) {
+            redis.close();
+        }
+        sessionCache.clear();
+    }
+
+    public void setSession(UUID uuid, String ip) {
+        // Met à jour le cache local
+        List<SessionCodec.TrustedIp> ips = withIp(cachedIps(uuid), ip, newSessionExpiresAt());
+        sessionCache.put(uuid, new CachedSession(ips));
+        snapshotDirty.set(true);
+        
+        // Si Redis n'est pas utilisé ou pas disponible, on s'arrête là
+        if (!redisAllowed()) {
+            return;
+        }
+
+        try {
+            writeRedisSession(uuid, ips);
+            circuitBreaker.recordSuccess();
+        } catch (JedisConnectionException e) {
+            onRedisConnectionFailure("Erreur de connexion Redis - Passage en mode local", e);
+        } catch (Exception e) {
+            circuitBreaker.releaseTrial();
+            plugin.getLogger().severe("Erreur lors de l'enregistrement de la session Redis: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Enregistre une session uniquement dans le cache local (ex: jeton transmis par le proxy)
+     */
+    public void cacheSession(UUID uuid, String ip, long expiresAt) {
+        sessionCache.put(uuid, new CachedSession(withIp(cachedIps(uuid), ip, expiresAt)));
+        snapshotDirty.set(true);
+    }
+
+    /**
+     * Date d'expiration d'une session qui serait créée maintenant
+     */
+    public long newSessionExpiresAt() {
+        return System.currentTimeMillis() + sessionExpirySeconds() * 1000L;
+    }
+
+    private int sessionExpirySeconds() {
+        return plugin.getConfig().getInt("redis.session-expiry", 43200);
+    }
+
+    /**
+     * Vérifie si l'IP fait partie des IP de confiance du joueur, et prolonge la session le cas échéant
+     */
+    public boolean hasSession(UUID uuid, String ip) {
+        long now = System.currentTimeMillis();
+        CachedSession cached = sessionCache.get(uuid);
+        // Si le cache est encore valide et reconnaît l'IP, inutile d'interroger Redis
+        if (cached != null && now - cached.lastCheck < CACHE_DURATION && cached.trusts(ip, now)) {
+            return true;
+        }
+        
+        // Mode dégradé : pas d'appel Redis depuis le thread principal, le cache local fait foi
+        if (plugin.getHandlerTimings().isDegraded() && Bukkit.isPrimaryThread()) {
+            return cached != null && cached.trusts(ip, now);
+        }
+        
+        List<SessionCodec.TrustedIp> ips = loadRedisSession(uuid);
+        if (ips == null) {
+            // En cas d'erreur ou si Redis est désactivé, utilise le cache local
+            return cached != null && cached.trusts(ip, now);
+        }
+        
+        CachedSession fresh = new CachedSession(ips);
+        if (!fresh.trusts(ip, now)) {
+            sessionCache.put(uuid, fresh);
+            return false;
+        }
+        
+        // Rafraîchit l'expiration de l'IP utilisée (une seule écriture, sur le primaire)
+        sessionCache.put(uuid, fresh);
+        setSession(uuid, ip);
+        return true;
+    }
+
+    /**
+     * IP de confiance actives du joueur (cache local, ou Redis si le cache est périmé)
+     */
+    public List<String> getSessionIps(UUID uuid) {
+        long now = System.currentTimeMillis();
+        CachedSession cached = sessionCache.get(uuid);
+        List<SessionCodec.TrustedIp> ips = cached != null && now - cached.lastCheck < CACHE_DURATION ? cached.ips : null;
+        if (ips == null) {
+            ips = loadRedisSession(uuid);
+            if (ips != null) {
+                sessionCache.put(uuid, new CachedSession(ips));
+            } else {
+                ips = cachedIps(uuid);
+            }
+        }
+        
+        List<String> result = new ArrayList<>(ips.size());
+        for (SessionCodec.TrustedIp trusted : ips) {
+            if (trusted.expiresAt() > now) {
+                result.add(trusted.ip());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Vérifie une IP dans le cache local uniquement (aucun appel Redis)
+     */
+    public boolean hasCachedSession(UUID uuid, String ip) {
+        CachedSession cached = sessionCache.get(uuid);
+        return cached != null && cached.trusts(ip, System.currentTimeMillis());
+    }
+
+    public void removeSession(UUID uuid) {
+        // Supprime du cache local
+        if (sessionCache.remove(uuid) != null) {
+            snapshotDirty.set(true);
+        }
+        
+        // Si Redis n'est pas utilisé ou pas disponible, on s'arrête là
+        if (!redisAllowed()) {
+            return;
+        }
+
+        try {
+            // Supprime directement la clé de session (et celle de l'ancien format pendant la migration)
+            long result = redis.write(jedis -> {
+                long deleted = jedis.del(SessionCodec.key(uuid));
+                if (System.currentTimeMillis() < legacyUntil) {
+                    deleted += jedis.del(LEGACY_KEY + uuid);
+                }
+                return deleted;
+            });
+            circuitBreaker.recordSuccess();
+            if (result > 0) {
+                plugin.getLogger().info("Session Redis supprimée pour " + uuid);
+            }
+        } catch (JedisConnectionException e) {
+            onRedisConnectionFailure("Erreur de connexion Redis lors de la suppression de session", e);
+        } catch (Exception e) {
+            circuitBreaker.releaseTrial();
+            plugin.getLogger().severe("Erreur lors de la suppression de la session Redis: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Écrit la liste des IP de confiance en une commande, la clé expirant avec la dernière session
+     */
+    private void writeRedisSession(UUID uuid, List<SessionCodec.TrustedIp> ips) {
+        long ttl = ips.get(0).expiresAt() - System.currentTimeMillis();
+        if (ttl > 0) {
+            redis.write(jedis -> jedis.set(SessionCodec.key(uuid), SessionCodec.encode(ips), SetParams.setParams().px(ttl)));
+        }
+    }
+
+    /**
+     * Lit les IP de confiance depuis Redis en une commande (migrant au besoin l'ancien format), null si Redis est indisponible
+     */
+    private List<SessionCodec.TrustedIp> loadRedisSession(UUID uuid) {
+        if (!redisAllowed()) {
+            return null;
+        }
+        try {
+            // La lecture peut être servie par un réplica
+            byte[] value = redis.read(jedis -> jedis.get(SessionCodec.key(uuid)));
+            circuitBreaker.recordSuccess();
+            if (value != null) {
+                return SessionCodec.decode(value);
+            }
+            return System.currentTimeMillis() < legacyUntil ? migrateLegacySession(uuid) : List.of();
+        } catch (JedisConnectionException e) {
+            onRedisConnectionFailure("Erreur de connexion Redis - Utilisation du cache local", e);
+        } catch (Exception e) {
+            circuitBreaker.releaseTrial();
+            plugin.getLogger().severe("Erreur lors de la récupération de la session Redis: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Convertit une session de l'ancien format (clé texte contenant une IP) vers le format binaire
+     */
+    private List<SessionCodec.TrustedIp> migrateLegacySession(UUID uuid) {
+        String legacyKey = LEGACY_KEY + uuid;
+        String ip = redis.write(jedis -> jedis.get(legacyKey));
+        if (ip == null) {
+            return List.of();
+        }
+        List<SessionCodec.TrustedIp> ips = withIp(List.of(), ip, newSessionExpiresAt());
+        writeRedisSession(uuid, ips);
+        redis.write(jedis -> jedis.del(legacyKey));
+        plugin.getLogger().fine("Session Redis de " + uuid + " migrée vers le format binaire");
+        return ips;
+    }
+
+    public boolean isUsingRedis() {
+        RedisCircuitBreaker breaker = circuitBreaker;
+        return useRedis && redis != null && breaker != null && breaker.isAvailable();
+    }
+
+    /**
+     * Exécute une écriture Redis partagée (primaire) en respectant le disjoncteur, retourne null si Redis est indisponible
+     */
+    public <T> T redisWrite(String context, Function<UnifiedJedis, T> call) {
+        return redisCall(context, call, false);
+    }
+
+    /**
+     * Exécute une lecture Redis partagée (éventuellement sur un réplica), retourne null si Redis est indisponible
+     */
+    public <T> T redisRead(String context, Function<UnifiedJedis, T> call) {
+        return redisCall(context, call, true);
+    }
+
+    /**
+     * Écoute bloquante d'un canal Redis, à appeler depuis un thread dédié ; échoue si Redis est indisponible
+     */
+    public void redisSubscribe(JedisPubSub listener, String channel) {
+        // Un abonnement dure indéfiniment : il ne sert pas d'appel d'essai au disjoncteur
+        RedisCircuitBreaker breaker = circuitBreaker;
+        if (!useRedis || redis == null || breaker == null || breaker.getState() != RedisCircuitBreaker.State.CLOSED) {
+            throw new IllegalStateException("Redis indisponible");
+        }
+        try {
+            redis.subscribe(listener, channel);
+        } catch (JedisConnectionException e) {
+            onRedisConnectionFailure("Abonnement Redis interrompu (" + channel + ")", e);
+            throw e;
+        }
+    }
+
+    private <T> T redisCall(String context, Function<UnifiedJedis, T> call, boolean read) {
+        if (!redisAllowed()) {
+            return null;
+        }
+        try {
+            T result = read ? redis.read(call) : redis.write(call);
+            circuitBreaker.recordSuccess();
+            return result;
+        } catch (JedisConnectionException e) {
+            onRedisConnectionFailure("Erreur de connexion Redis (" + context + ")", e);
+        } catch (Exception e) {
+            circuitBreaker.releaseTrial();
+            plugin.getLogger().severe("Erreur Redis (" + context + "): " + e.getMessage());
+        }
+        return null;
+    }
+}
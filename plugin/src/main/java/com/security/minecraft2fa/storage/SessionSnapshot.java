@@ -0,0 +1,126 @@
+package com.security.minecraft2fa.storage;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Fichier binaire compact contenant les sessions du mode standalone.
+ *
+ * Format : magic (int), version (byte), nombre d'entrées (int), puis pour chaque
+ * entrée : UUID (2 longs), longueur de l'IP (byte), octets de l'IP, expiration (long).
+ */
+public class SessionSnapshot {
+
+    private static final int MAGIC = 0x32464153; // "2FAS"
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 4;
+    private static final int MAX_ENTRY_SIZE = 16 + 1 + 16 + 8;
+
+    public record Entry(UUID uuid, String ip, long expiresAt) {}
+
+    private final Path file;
+    private final Path tempFile;
+
+    public SessionSnapshot(Path file) {
+        this.file = file;
+        this.tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    /**
+     * Charge les sessions du fichier en ignorant celles qui ont expiré
+     */
+    public List<Entry> load(long now) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.isRegularFile(file)) {
+            return entries;
+        }
+
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // lecture complète du fichier
+            }
+        }
+        buffer.flip();
+
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new IOException("Format de snapshot de sessions invalide: " + file);
+        }
+
+        int count = buffer.getInt();
+        byte[] ipBytes4 = new byte[4];
+        byte[] ipBytes16 = new byte[16];
+        for (int i = 0; i < count; i++) {
+            UUID uuid = new UUID(buffer.getLong(), buffer.getLong());
+            int ipLength = buffer.get();
+            byte[] ipBytes = ipLength == 4 ? ipBytes4 : ipLength == 16 ? ipBytes16 : null;
+            if (ipBytes == null) {
+                throw new IOException("Longueur d'IP invalide dans le snapshot: " + ipLength);
+            }
+            buffer.get(ipBytes);
+            long expiresAt = buffer.getLong();
+
+            if (expiresAt > now) {
+                entries.add(new Entry(uuid, InetAddress.getByAddress(ipBytes).getHostAddress(), expiresAt));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Écrit les sessions dans un fichier temporaire puis le renomme atomiquement
+     */
+    public void save(Collection<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + entries.size() * MAX_ENTRY_SIZE);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        int countPosition = buffer.position();
+        buffer.putInt(0);
+
+        int count = 0;
+        for (Entry entry : entries) {
+            byte[] ipBytes;
+            try {
+                ipBytes = InetAddress.getByName(entry.ip()).getAddress();
+            } catch (UnknownHostException e) {
+                continue;
+            }
+            buffer.putLong(entry.uuid().getMostSignificantBits());
+            buffer.putLong(entry.uuid().getLeastSignificantBits());
+            buffer.put((byte) ipBytes.length);
+            buffer.put(ipBytes);
+            buffer.putLong(entry.expiresAt());
+            count++;
+        }
+        buffer.putInt(countPosition, count);
+        buffer.flip();
+
+        Files.createDirectories(file.getParent());
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.security.minecraft2fa.utils;
+
+import org.bukkit.Server;
+import org.bukkit.command.PluginCommand;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Liste précompilée des commandes autorisées aux joueurs bloqués.
+ *
+ * Chaque libellé configuré est étendu à ses alias et à ses formes avec espace de noms
+ * ("minecraft2fa:2fa") d'après la commande enregistrée. La recherche ne lit que le libellé du
+ * message, sans découpage ni mise en minuscules : aucune allocation par commande tapée.
+ */
+public final class CommandAllowlist {
+
+    private final String[] table;
+    private final int mask;
+    private final int size;
+
+    private CommandAllowlist(Set<String> labels) {
+        int capacity = Integer.highestOneBit(Math.max(4, labels.size() * 4) - 1) << 1;
+        this.table = new String[capacity];
+        this.mask = capacity - 1;
+        this.size = labels.size();
+        for (String label : labels) {
+            int slot = hash(label, 0, label.length()) & mask;
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = label;
+        }
+    }
+
+    /**
+     * Compile les libellés configurés avec les alias et espaces de noms des commandes enregistrées
+     */
+    public static CommandAllowlist compile(Server server, Collection<String> configured) {
+        Set<String> labels = new LinkedHashSet<>();
+        for (String entry : configured) {
+            String label = entry.trim().toLowerCase(Locale.ROOT);
+            if (label.startsWith("/")) {
+                label = label.substring(1);
+            }
+            // Seul le libellé compte : "2fa verify" autorise /2fa
+            int space = label.indexOf(' ');
+            if (space >= 0) {
+                label = label.substring(0, space);
+            }
+            if (label.isEmpty()) {
+                continue;
+            }
+            labels.add(label);
+
+            PluginCommand command = server.getPluginCommand(label);
+            if (command != null) {
+                String namespace = command.getPlugin().getName().toLowerCase(Locale.ROOT);
+                labels.add(command.getName().toLowerCase(Locale.ROOT));
+                labels.add(namespace + ":" + command.getName().toLowerCase(Locale.ROOT));
+                for (String alias : command.getAliases()) {
+                    labels.add(alias.toLowerCase(Locale.ROOT));
+                    labels.add(namespace + ":" + alias.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return new CommandAllowlist(labels);
+    }
+
+    /**
+     * Vérifie le libellé d'un message de commande ("/2fa verify 123456")
+     */
+    public boolean allows(String message) {
+        int start = message.startsWith("/") ? 1 : 0;
+        int end = message.indexOf(' ', start);
+        return contains(message, start, end < 0 ? message.length() : end);
+    }
+
+    /**
+     * Vérifie un libellé seul, tel que présent dans l'arbre des commandes envoyé au client
+     */
+    public boolean allowsLabel(String label) {
+        return contains(label, 0, label.length());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean contains(String text, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return false;
+        }
+        for (int slot = hash(text, start, end) & mask; table[slot] != null; slot = (slot + 1) & mask) {
+            String label = table[slot];
+            if (label.length() == length && text.regionMatches(true, start, label, 0, length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hash(String text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+}
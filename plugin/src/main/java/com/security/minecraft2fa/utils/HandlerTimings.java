@@ -0,0 +1,231 @@
+package com.security.minecraft2fa.utils;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import lombok.Getter;
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Mesure du temps passé dans chaque handler du plugin et surveillance du budget par tick.
+ *
+ * Chaque appel est mesuré avec System.nanoTime et enregistré dans un histogramme par handler
+ * (classes en puissances de 2 de microsecondes). Sur le thread principal, le temps est aussi cumulé
+ * par tick : si le total dépasse diagnostics.tick-budget-ms, le handler le plus coûteux et les appels
+ * Redis/base de données du tick sont journalisés, et le plugin peut passer en mode dégradé
+ * (sessions lues uniquement depuis le cache local) jusqu'à ce que les backends répondent à nouveau.
+ */
+public class HandlerTimings {
+
+    private static final int BUCKETS = 24;
+    private static final long PROBE_INTERVAL_TICKS = 200;
+
+    private final Minecraft2FAPlugin plugin;
+    @Getter
+    private final boolean enabled;
+    private final long tickBudgetNanos;
+    private final boolean degradedModeAllowed;
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    // État du tick en cours (thread principal uniquement)
+    private final Map<String, Long> tickHandlers = new HashMap<>();
+    private final List<String> tickBackendCalls = new ArrayList<>();
+    private long tickNanos;
+    private long tickBackendNanos;
+
+    @Getter
+    private final AtomicLong budgetOverruns = new AtomicLong();
+    @Getter
+    private volatile boolean degraded;
+    private BukkitTask watchdogTask;
+    private BukkitTask probeTask;
+
+    public HandlerTimings(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+        this.enabled = plugin.getConfig().getBoolean("diagnostics.timings", true);
+        this.tickBudgetNanos = (long) (plugin.getConfig().getDouble("diagnostics.tick-budget-ms", 2.0) * 1_000_000L);
+        this.degradedModeAllowed = plugin.getConfig().getBoolean("diagnostics.degraded-mode", true);
+    }
+
+    public void start() {
+        if (enabled) {
+            watchdogTask = Bukkit.getScheduler().runTaskTimer(plugin, this::checkTick, 1L, 1L);
+        }
+    }
+
+    public void stop() {
+        if (watchdogTask != null) {
+            watchdogTask.cancel();
+            watchdogTask = null;
+        }
+        if (probeTask != null) {
+            probeTask.cancel();
+            probeTask = null;
+        }
+    }
+
+    /**
+     * Début d'une mesure, 0 si l'instrumentation est désactivée
+     */
+    public long begin() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Fin de l'exécution d'un handler commencée par {@link #begin()}
+     */
+    public void end(String handler, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        histogram(handler).record(elapsed);
+        if (Bukkit.isPrimaryThread()) {
+            tickNanos += elapsed;
+            tickHandlers.merge(handler, elapsed, Long::sum);
+        }
+    }
+
+    /**
+     * Fin d'un appel Redis ou base de données commencé par {@link #begin()}
+     */
+    public void backendCall(String call, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        histogram("backend:" + call).record(elapsed);
+        if (Bukkit.isPrimaryThread()) {
+            tickBackendNanos += elapsed;
+            tickBackendCalls.add(call + " " + formatMillis(elapsed));
+        }
+    }
+
+    public Map<String, Histogram> getHistograms() {
+        return new TreeMap<>(histograms);
+    }
+
+    private Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Exécuté à chaque tick : compare le temps cumulé du tick précédent au budget
+     */
+    private void checkTick() {
+        if (tickNanos > tickBudgetNanos) {
+            budgetOverruns.incrementAndGet();
+            String worst = null;
+            long worstNanos = 0;
+            for (Map.Entry<String, Long> entry : tickHandlers.entrySet()) {
+                if (entry.getValue() > worstNanos) {
+                    worst = entry.getKey();
+                    worstNanos = entry.getValue();
+                }
+            }
+            plugin.getLogger().warning("Budget de tick dépassé: " + formatMillis(tickNanos) + " > " + formatMillis(tickBudgetNanos)
+                + " - " + worst + " (" + formatMillis(worstNanos) + ")"
+                + (tickBackendCalls.isEmpty() ? "" : ", appels backend: " + String.join(", ", tickBackendCalls)));
+
+            // Le dépassement vient des backends : les sessions ne sont plus lues que depuis le cache
+            if (degradedModeAllowed && !degraded && tickBackendNanos > tickBudgetNanos / 2) {
+                enterDegradedMode();
+            }
+        }
+        tickNanos = 0;
+        tickBackendNanos = 0;
+        tickHandlers.clear();
+        tickBackendCalls.clear();
+    }
+
+    private void enterDegradedMode() {
+        degraded = true;
+        plugin.getLogger().warning("Mode dégradé activé - Les sessions sont lues depuis le cache local jusqu'au rétablissement des backends");
+        probeTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::probe, PROBE_INTERVAL_TICKS, PROBE_INTERVAL_TICKS);
+    }
+
+    /**
+     * Sonde hors du thread principal : sort du mode dégradé dès que Redis répond dans le budget
+     */
+    private void probe() {
+        boolean redisConfigured = plugin.getConfig().getBoolean("redis.enabled", false);
+        if (redisConfigured && !plugin.getSessionManager().isUsingRedis()) {
+            return; // Redis toujours indisponible (disjoncteur ouvert)
+        }
+        long start = System.nanoTime();
+        if (redisConfigured) {
+            plugin.getSessionManager().redisRead("sonde du mode dégradé", jedis -> jedis.exists("2fa:probe"));
+        }
+        long elapsed = System.nanoTime() - start;
+        if (elapsed < tickBudgetNanos / 2) {
+            degraded = false;
+            probeTask.cancel();
+            probeTask = null;
+            plugin.getLogger().info("Backends rétablis (" + formatMillis(elapsed) + ") - Fin du mode dégradé");
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2f ms", nanos / 1_000_000.0);
+    }
+
+    /**
+     * Histogramme à classes logarithmiques : la classe i compte les durées inférieures à 2^i microsecondes
+     */
+    public static class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        @Getter
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            if (nanos > maxNanos.get()) {
+                maxNanos.accumulateAndGet(nanos, Math::max);
+            }
+        }
+
+        public double getAverageMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / (double) n / 1_000_000.0;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        /**
+         * Borne supérieure (en millisecondes) de la classe contenant le percentile demandé
+         */
+        public double getPercentileMillis(double percentile) {
+            long n = count.get();
+            if (n == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(n * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return (1L << i) / 1000.0;
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+}
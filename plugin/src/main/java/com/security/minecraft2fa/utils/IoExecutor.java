@@ -0,0 +1,262 @@
+package com.security.minecraft2fa.utils;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import lombok.Getter;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exécuteur unique pour toutes les opérations bloquantes du plugin (JDBC, Redis, HTTP, fichiers).
+ *
+ * Sur Java 21+ les tâches tournent sur des threads virtuels, sinon sur un pool borné de threads
+ * par catégorie. Chaque catégorie a sa propre limite de concurrence et une file bornée : au-delà,
+ * les tâches sont refusées immédiatement plutôt que de s'accumuler.
+ */
+public class IoExecutor {
+
+    public enum Category { DATABASE, REDIS, HTTP, FILE }
+
+    private static final long DRAIN_TIMEOUT_SECONDS = 5;
+
+    private final Minecraft2FAPlugin plugin;
+    private final Map<Category, Lane> lanes = new EnumMap<>(Category.class);
+    private final ExecutorService virtualExecutor;
+
+    public IoExecutor(Minecraft2FAPlugin plugin) {
+        this.plugin = plugin;
+        ConfigurationSection config = plugin.getConfig().getConfigurationSection("executor");
+        boolean preferVirtual = config == null || config.getBoolean("virtual-threads", true);
+
+        this.virtualExecutor = preferVirtual ? createVirtualExecutor() : null;
+        for (Category category : Category.values()) {
+            String path = category.name().toLowerCase();
+            int concurrency = Math.max(1, config != null ? config.getInt(path + ".concurrency", defaultConcurrency(category)) : defaultConcurrency(category));
+            int queue = Math.max(0, config != null ? config.getInt(path + ".queue", 256) : 256);
+            lanes.put(category, new Lane(category, concurrency, queue));
+        }
+
+        plugin.getLogger().info("Exécuteur d'E/S initialisé (" + (isVirtual() ? "threads virtuels" : "pool de threads borné") + ")");
+    }
+
+    public boolean isVirtual() {
+        return virtualExecutor != null;
+    }
+
+    /**
+     * Exécute une tâche bloquante de la catégorie donnée
+     */
+    public CompletableFuture<Void> run(Category category, Runnable task) {
+        return supply(category, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Exécute une tâche bloquante retournant un résultat
+     */
+    public <T> CompletableFuture<T> supply(Category category, Callable<T> task) {
+        return lanes.get(category).submit(task);
+    }
+
+    public Map<Category, Lane> getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Termine les tâches en cours et refuse les nouvelles (appelé à l'arrêt du plugin)
+     */
+    public void shutdown() {
+        for (Lane lane : lanes.values()) {
+            lane.shutdown();
+        }
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DRAIN_TIMEOUT_SECONDS);
+        try {
+            for (Lane lane : lanes.values()) {
+                lane.awaitTermination(deadline);
+            }
+            if (virtualExecutor != null) {
+                virtualExecutor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Lane lane : lanes.values()) {
+            if (lane.getQueued() + lane.getActive() > 0) {
+                plugin.getLogger().warning("Arrêt de l'exécuteur d'E/S: " + (lane.getQueued() + lane.getActive())
+                    + " tâche(s) " + lane.getCategory() + " non terminée(s)");
+            }
+        }
+    }
+
+    private static int defaultConcurrency(Category category) {
+        return switch (category) {
+            case DATABASE -> 1;
+            case REDIS -> 4;
+            case HTTP, FILE -> 2;
+        };
+    }
+
+    /**
+     * Threads virtuels si la JVM les supporte (Java 21+), sinon null
+     */
+    private ExecutorService createVirtualExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * File d'exécution d'une catégorie, avec ses limites et ses métriques
+     */
+    public class Lane {
+        @Getter
+        private final Category category;
+        @Getter
+        private final int concurrency;
+        private final int queueCapacity;
+        private final Semaphore permits;
+        private final ThreadPoolExecutor pool;
+
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger active = new AtomicInteger();
+        @Getter
+        private final AtomicLong submitted = new AtomicLong();
+        @Getter
+        private final AtomicLong rejected = new AtomicLong();
+        @Getter
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong totalLatencyNanos = new AtomicLong();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Lane(Category category, int concurrency, int queueCapacity) {
+            this.category = category;
+            this.concurrency = concurrency;
+            this.queueCapacity = queueCapacity;
+            if (virtualExecutor != null) {
+                this.permits = new Semaphore(concurrency);
+                this.pool = null;
+            } else {
+                this.permits = null;
+                AtomicInteger threadId = new AtomicInteger();
+                this.pool = new ThreadPoolExecutor(concurrency, concurrency, 60, TimeUnit.SECONDS,
+                    queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>(),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "2FA-IO-" + category.name().toLowerCase() + "-" + threadId.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+                this.pool.allowCoreThreadTimeOut(true);
+            }
+        }
+
+        <T> CompletableFuture<T> submit(Callable<T> task) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            long enqueuedAt = System.nanoTime();
+
+            // Contre-pression : au-delà de la capacité, refus immédiat sans blocage de l'appelant
+            if (virtualExecutor != null && queued.get() + active.get() >= concurrency + queueCapacity) {
+                return reject(future);
+            }
+
+            queued.incrementAndGet();
+            submitted.incrementAndGet();
+            Runnable runnable = () -> {
+                if (permits != null) {
+                    permits.acquireUninterruptibly();
+                }
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    future.complete(task.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    active.decrementAndGet();
+                    if (permits != null) {
+                        permits.release();
+                    }
+                    long latency = System.nanoTime() - enqueuedAt;
+                    completed.incrementAndGet();
+                    totalLatencyNanos.addAndGet(latency);
+                    maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                }
+            };
+
+            try {
+                executor().execute(runnable);
+            } catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                submitted.decrementAndGet();
+                return reject(future);
+            }
+            return future;
+        }
+
+        private <T> CompletableFuture<T> reject(CompletableFuture<T> future) {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException(
+                "File " + category + " saturée (" + queueCapacity + " tâches en attente)"));
+            return future;
+        }
+
+        private Executor executor() {
+            return pool != null ? pool : virtualExecutor;
+        }
+
+        public int getQueued() {
+            return queued.get();
+        }
+
+        public int getActive() {
+            return active.get();
+        }
+
+        /**
+         * Latence moyenne (attente + exécution) en millisecondes
+         */
+        public double getAverageLatencyMillis() {
+            long count = completed.get();
+            return count == 0 ? 0 : totalLatencyNanos.get() / (double) count / 1_000_000.0;
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatencyNanos.get() / 1_000_000.0;
+        }
+
+        void shutdown() {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+
+        void awaitTermination(long deadline) throws InterruptedException {
+            if (pool != null) {
+                pool.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.security.minecraft2fa.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Barrière de démarrage : s'ouvre lorsque la base de données, les sessions et les blocages sont initialisés.
+ *
+ * Tant qu'elle est fermée, les connexions sont retenues en pré-connexion (avec délai maximal)
+ * et les joueurs à permissions sensibles sont considérés comme bloqués.
+ */
+public class ReadinessGate {
+
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    /**
+     * Exécute l'initialisation d'un composant via l'exécuteur fourni en mesurant sa durée
+     */
+    public CompletableFuture<Void> track(String component, Supplier<CompletableFuture<Void>> init) {
+        long start = System.nanoTime();
+        return init.get().whenComplete((result, error) ->
+            timings.put(component, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    public void open() {
+        ready.complete(null);
+    }
+
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /**
+     * Attend l'ouverture de la barrière, retourne false si le délai est dépassé
+     */
+    public boolean await(long timeoutMillis) {
+        if (ready.isDone()) {
+            return true;
+        }
+        try {
+            ready.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Durées d'initialisation par composant, en millisecondes
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+}
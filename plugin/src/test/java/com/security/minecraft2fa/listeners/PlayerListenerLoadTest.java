@@ -0,0 +1,160 @@
+package com.security.minecraft2fa.listeners;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.testing.LatencyRecorder;
+import com.security.minecraft2fa.testing.PluginHarness;
+import com.security.minecraft2fa.testing.SimulatedPlayer;
+import org.bukkit.Location;
+import org.bukkit.block.BlockFace;
+import org.bukkit.event.Event;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.player.AsyncPlayerChatEvent;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.plugin.RegisteredListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Coût par événement des handlers du plugin avec de nombreux joueurs simulés, bloqués ou non.
+ *
+ * Taille et mélange ajustables : -Dload.players=5000 -Dload.events=200000 -Dload.sensitive=0.3
+ * -Dload.enrolled=0.8 -Dload.authenticated=0.5. Le rapport (p50/p99 et octets alloués par
+ * événement, par type d'événement) est écrit sur la sortie standard.
+ */
+class PlayerListenerLoadTest {
+
+    private static final int PLAYERS = Integer.getInteger("load.players", 500);
+    private static final int EVENTS = Integer.getInteger("load.events", 20000);
+    private static final PluginHarness.Mix MIX = new PluginHarness.Mix(
+        Double.parseDouble(System.getProperty("load.sensitive", "0.3")),
+        Double.parseDouble(System.getProperty("load.enrolled", "0.8")),
+        Double.parseDouble(System.getProperty("load.authenticated", "0.5")));
+    // Borne large : détecte une régression d'un ordre de grandeur (requête bloquante dans un handler)
+    private static final long MAX_P99_MICROS = Long.getLong("load.max-p99-micros", 5000);
+
+    private PluginHarness harness;
+    private Minecraft2FAPlugin plugin;
+
+    @BeforeEach
+    void setUp() {
+        harness = PluginHarness.start();
+        plugin = harness.getPlugin();
+    }
+
+    @AfterEach
+    void tearDown() {
+        harness.close();
+    }
+
+    @Test
+    void locksExactlyPlayersWithSensitivePermissionsAndNoSession() {
+        List<SimulatedPlayer> players = harness.spawn(200, MIX, 1);
+
+        for (SimulatedPlayer player : players) {
+            boolean locked = plugin.getLockManager().isLocked(player.getUniqueId());
+            assertEquals(player.expectLocked(), locked, player.getName());
+            // Immobilisation appliquée une seule fois au blocage
+            assertEquals(locked, player.getWalkSpeed() == 0f, player.getName());
+            assertEquals(locked, player.isInvulnerable(), player.getName());
+        }
+    }
+
+    @Test
+    void registersNoRestrictiveHandlerWithoutLockedPlayers() {
+        harness.spawn(100, new PluginHarness.Mix(0, 0.5, 0.5), 2);
+
+        assertTrue(plugin.getLockManager().getLockedPlayers().isEmpty());
+        for (RegisteredListener listener : PlayerMoveEvent.getHandlerList().getRegisteredListeners()) {
+            assertNotEquals(plugin, listener.getPlugin());
+        }
+    }
+
+    @Test
+    void reportsHandlerCostPerEvent() {
+        List<SimulatedPlayer> players = harness.spawn(PLAYERS, MIX, 3);
+        Random random = new Random(4);
+
+        // Préchauffage (JIT) sans mesure
+        for (int i = 0; i < Math.min(EVENTS, 5000); i++) {
+            fire(players.get(random.nextInt(players.size())), random.nextInt(5), null);
+        }
+
+        List<LatencyRecorder> byType = List.of(new LatencyRecorder("PlayerMoveEvent"),
+            new LatencyRecorder("PlayerInteractEvent"), new LatencyRecorder("AsyncPlayerChatEvent"),
+            new LatencyRecorder("PlayerCommandPreprocessEvent (refusée)"),
+            new LatencyRecorder("PlayerCommandPreprocessEvent (/2fa)"));
+        for (int i = 0; i < EVENTS; i++) {
+            int type = random.nextInt(5);
+            fire(players.get(random.nextInt(players.size())), type, byType.get(type));
+            if (i % PLAYERS == PLAYERS - 1) {
+                harness.tick();
+            }
+        }
+
+        long locked = players.stream().filter(SimulatedPlayer::expectLocked).count();
+        System.out.println("=== Coût des handlers 2FA : " + players.size() + " joueurs (" + locked + " bloqués), "
+            + EVENTS + " événements ===");
+        for (LatencyRecorder recorder : byType) {
+            System.out.println(recorder.summary());
+            assertTrue(recorder.p99Micros() <= MAX_P99_MICROS, recorder.summary());
+        }
+    }
+
+    /**
+     * Déclenche un événement du type demandé et vérifie le traitement attendu selon l'état du joueur
+     */
+    private void fire(SimulatedPlayer player, int type, LatencyRecorder recorder) {
+        boolean locked = plugin.getLockManager().isLocked(player.getUniqueId());
+        switch (type) {
+            case 0 -> {
+                Location from = player.getLocation();
+                Location to = from.clone().add(2.5, 0, 0);
+                PlayerMoveEvent event = new PlayerMoveEvent(player, from, to);
+                call(event, recorder);
+                assertEquals(!locked, event.getTo().getX() == to.getX(), "déplacement de " + player.getName());
+            }
+            case 1 -> {
+                PlayerInteractEvent event = new PlayerInteractEvent(player, Action.RIGHT_CLICK_AIR, null, null, BlockFace.SELF);
+                call(event, recorder);
+                assertEquals(locked, event.useItemInHand() == Event.Result.DENY, "interaction de " + player.getName());
+            }
+            case 2 -> {
+                AsyncPlayerChatEvent event = new AsyncPlayerChatEvent(false, player, "bonjour", new HashSet<>());
+                call(event, recorder);
+                assertEquals(locked, event.isCancelled(), "chat de " + player.getName());
+            }
+            case 3 -> {
+                PlayerCommandPreprocessEvent event = new PlayerCommandPreprocessEvent(player, "/spawn");
+                call(event, recorder);
+                assertEquals(locked, event.isCancelled(), "commande de " + player.getName());
+            }
+            default -> {
+                PlayerCommandPreprocessEvent event = new PlayerCommandPreprocessEvent(player, "/2fa verify 123456");
+                call(event, recorder);
+                assertFalse(event.isCancelled(), "/2fa de " + player.getName());
+            }
+        }
+    }
+
+    private void call(Event event, LatencyRecorder recorder) {
+        long allocated = LatencyRecorder.threadAllocatedBytes();
+        long start = System.nanoTime();
+        harness.getServer().getPluginManager().callEvent(event);
+        long elapsed = System.nanoTime() - start;
+        if (recorder != null) {
+            recorder.record(elapsed, LatencyRecorder.threadAllocatedBytes() - allocated);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.testing.PluginHarness;
+import com.security.minecraft2fa.testing.RespStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Routage des lectures vers les réplicas (serveurs RESP locaux jouant le primaire, les réplicas et
+ * le Sentinel) : répartition circulaire, repli sur le primaire, écritures sur le primaire seul, et
+ * mise à jour de la liste des réplicas d'après le Sentinel.
+ */
+class RedisReplicaRoutingTest {
+
+    private static final int TIMEOUT_MILLIS = 200;
+    private static final long AWAIT_MILLIS = 2000;
+
+    private RespStub primary;
+    private RespStub first;
+    private RespStub second;
+    private RespStub sentinel;
+    private PluginHarness harness;
+    private Minecraft2FAPlugin plugin;
+    private RedisConnector connector;
+
+    @BeforeEach
+    void setUp() {
+        primary = RespStub.start();
+        first = RespStub.start();
+        second = RespStub.start();
+        sentinel = RespStub.start();
+        harness = PluginHarness.start();
+        plugin = harness.getPlugin();
+
+        plugin.getConfig().set("redis.mode", "standalone");
+        plugin.getConfig().set("redis.host", primary.getHost());
+        plugin.getConfig().set("redis.port", primary.getPort());
+        plugin.getConfig().set("redis.timeout", TIMEOUT_MILLIS);
+        plugin.getConfig().set("redis.read-from-replicas", true);
+        plugin.getConfig().set("redis.replicas", List.of(address(first), address(second)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connector != null) {
+            connector.close();
+        }
+        harness.close();
+        sentinel.close();
+        second.close();
+        first.close();
+        primary.close();
+    }
+
+    @Test
+    void readsAlternateBetweenReplicasAndWritesOnlyReachThePrimary() {
+        connect();
+        assertEquals(2, connector.getReplicaCount());
+
+        connector.write(jedis -> jedis.set("2fa:test", "v"));
+        for (int i = 0; i < 10; i++) {
+            // Les réplicas de test ne répliquent rien : la valeur n'est lue que sur le primaire
+            assertNull(connector.read(jedis -> jedis.get("2fa:test")));
+        }
+
+        assertEquals(5, first.count("GET"));
+        assertEquals(5, second.count("GET"));
+        assertEquals(0, primary.count("GET"));
+        assertEquals(1, primary.count("SET"));
+        assertEquals(0, first.count("SET") + second.count("SET"));
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenAReplicaFails() {
+        connect();
+        connector.write(jedis -> jedis.set("2fa:test", "v"));
+        second.stop();
+
+        int fromPrimary = 0;
+        for (int i = 0; i < 10; i++) {
+            if ("v".equals(connector.read(jedis -> jedis.get("2fa:test")))) {
+                fromPrimary++;
+            }
+        }
+
+        assertEquals(5, first.count("GET"));
+        assertEquals(5, primary.count("GET"));
+        assertEquals(5, fromPrimary);
+    }
+
+    @Test
+    void sentinelEventsAndRefreshesDropFlaggedReplicas() {
+        sentinel.monitor("mymaster", primary);
+        sentinel.replica(first, "slave", "ok");
+        sentinel.replica(second, "slave", "ok");
+        plugin.getConfig().set("redis.mode", "sentinel");
+        plugin.getConfig().set("redis.sentinel.master-name", "mymaster");
+        plugin.getConfig().set("redis.sentinel.nodes", List.of(address(sentinel)));
+        plugin.getConfig().set("redis.sentinel.refresh-interval", 0);
+        connect();
+        assertEquals(2, connector.getReplicaCount());
+
+        // Réplica déclaré en panne : retiré à la réception de l'événement
+        await(() -> sentinel.subscribers("+sdown") > 0);
+        sentinel.replica(second, "slave,s_down", "ok");
+        sentinel.publish("+sdown", "slave " + address(second) + " " + second.getHost() + " " + second.getPort()
+            + " @ mymaster " + primary.getHost() + " " + primary.getPort());
+        await(() -> connector.getReplicaCount() == 1);
+
+        // Réplication coupée : retiré à la redécouverte suivante, les lectures vont au primaire
+        sentinel.replica(first, "slave", "err");
+        connector.refreshReplicas();
+        assertEquals(0, connector.getReplicaCount());
+
+        long reads = first.count("GET") + second.count("GET");
+        connector.read(jedis -> jedis.get("2fa:test"));
+        assertEquals(1, primary.count("GET"));
+        assertEquals(reads, first.count("GET") + second.count("GET"));
+
+        // Réplica rétabli : de nouveau utilisé
+        sentinel.replica(second, "slave", "ok");
+        sentinel.publish("-sdown", "slave " + address(second) + " " + second.getHost() + " " + second.getPort()
+            + " @ mymaster " + primary.getHost() + " " + primary.getPort());
+        await(() -> connector.getReplicaCount() == 1);
+        connector.read(jedis -> jedis.get("2fa:test"));
+        assertEquals(1, second.count("GET"));
+    }
+
+    private void connect() {
+        connector = new RedisConnector(plugin);
+        connector.connect();
+    }
+
+    private static String address(RespStub stub) {
+        return stub.getHost() + ":" + stub.getPort();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition non atteinte en " + AWAIT_MILLIS + " ms");
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("Attente interrompue");
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.security.minecraft2fa.storage;
+
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import com.security.minecraft2fa.testing.FaultySqliteDriver;
+import com.security.minecraft2fa.testing.LatencyRecorder;
+import com.security.minecraft2fa.testing.PluginHarness;
+import com.security.minecraft2fa.testing.RespStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sessions et clés secrètes face aux pannes de Redis (serveur RESP local) et de la base (SQLite
+ * temporaire derrière un pilote à pannes injectables).
+ *
+ * Chaque serveur simulé est un SessionManager distinct connecté au même Redis. Les vérifications de
+ * session sont faites hors du thread principal, comme à la pré-connexion. Le disjoncteur n'avance
+ * qu'avec les ticks du serveur simulé. Borne du p99 (disjoncteur ouvert) : -Dfaults.max-p99-micros.
+ */
+class StorageFaultInjectionTest {
+
+    private static final int TIMEOUT_MILLIS = 200;
+    private static final int SAMPLES = Integer.getInteger("faults.samples", 2000);
+    // Disjoncteur ouvert : aucun appel réseau, seul le cache local est lu
+    private static final long MAX_FAIL_FAST_P99_MICROS = Long.getLong("faults.max-p99-micros", 2000);
+    private static final String IP = "10.0.0.1";
+
+    private FaultySqliteDriver sqlite;
+    private RespStub redis;
+    private PluginHarness harness;
+    private Minecraft2FAPlugin plugin;
+    private final List<SessionManager> servers = new ArrayList<>();
+    private final ExecutorService preLogin = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setUp() {
+        sqlite = FaultySqliteDriver.install();
+        redis = RespStub.start();
+        harness = PluginHarness.start();
+        plugin = harness.getPlugin();
+
+        plugin.getConfig().set("redis.enabled", true);
+        plugin.getConfig().set("redis.mode", "standalone");
+        plugin.getConfig().set("redis.host", redis.getHost());
+        plugin.getConfig().set("redis.port", redis.getPort());
+        plugin.getConfig().set("redis.timeout", TIMEOUT_MILLIS);
+        plugin.getConfig().set("redis.read-from-replicas", false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        servers.forEach(SessionManager::close);
+        preLogin.shutdownNow();
+        harness.close();
+        redis.close();
+        sqlite.uninstall();
+    }
+
+    @Test
+    void sharesSessionsBetweenServers() {
+        SessionManager first = connect();
+        SessionManager second = connect();
+        UUID uuid = player(1);
+
+        run(() -> first.setSession(uuid, IP));
+
+        assertTrue(call(() -> second.hasSession(uuid, IP)));
+        assertFalse(call(() -> second.hasSession(uuid, "10.0.0.2")));
+        assertEquals(RedisCircuitBreaker.State.CLOSED, second.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void authPathFailsFastWhileRedisIsDown() {
+        SessionManager server = connect();
+        UUID trusted = player(1);
+        run(() -> server.setSession(trusted, IP));
+
+        redis.stop();
+        // Connexion refusée : le disjoncteur s'ouvre et la vérification se rabat sur le cache local
+        assertFalse(call(() -> server.hasSession(player(2), IP)));
+        assertEquals(RedisCircuitBreaker.State.OPEN, server.getCircuitBreaker().getState());
+
+        LatencyRecorder recorder = measure("hasSession (Redis arrêté)", i -> server.hasSession(player(100 + i), IP));
+        assertTrue(recorder.p99Micros() <= MAX_FAIL_FAST_P99_MICROS, recorder.summary());
+        assertTrue(call(() -> server.hasSession(trusted, IP)));
+    }
+
+    @Test
+    void slowRedisIsToleratedUntilTheTimeout() {
+        SessionManager server = connect();
+        redis.delay(20);
+
+        LatencyRecorder recorder = measure("hasSession (Redis +20 ms)", 50, i -> server.hasSession(player(100 + i), IP));
+        assertTrue(recorder.percentile(50) >= 20_000_000L, recorder.summary());
+        assertTrue(recorder.p99Micros() < TIMEOUT_MILLIS * 1000L, recorder.summary());
+        assertEquals(RedisCircuitBreaker.State.CLOSED, server.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void redisSlowerThanTheTimeoutOpensTheBreaker() {
+        SessionManager server = connect();
+        redis.delay(TIMEOUT_MILLIS * 3L);
+
+        // Attente bornée par redis.timeout (validation de la connexion empruntée, puis d'une nouvelle)
+        long start = System.nanoTime();
+        assertFalse(call(() -> server.hasSession(player(2), IP)));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMillis < TIMEOUT_MILLIS * 5L, elapsedMillis + " ms");
+        assertEquals(RedisCircuitBreaker.State.OPEN, server.getCircuitBreaker().getState());
+
+        LatencyRecorder recorder = measure("hasSession (Redis trop lent)", i -> server.hasSession(player(100 + i), IP));
+        assertTrue(recorder.p99Micros() <= MAX_FAIL_FAST_P99_MICROS, recorder.summary());
+    }
+
+    @Test
+    void partialOutageFallsBackToTheLocalCache() {
+        SessionManager first = connect();
+        SessionManager second = connect();
+        UUID uuid = player(1);
+        // Les écritures passent, les lectures coupent la connexion
+        redis.drop("GET");
+
+        run(() -> first.setSession(uuid, IP));
+        assertNotNull(redis.value(SessionCodec.key(uuid)));
+
+        assertTrue(call(() -> first.hasSession(uuid, IP)));
+        assertFalse(call(() -> second.hasSession(uuid, IP)));
+        assertEquals(RedisCircuitBreaker.State.CLOSED, first.getCircuitBreaker().getState());
+        assertEquals(RedisCircuitBreaker.State.OPEN, second.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void errorRepliesKeepTheBreakerClosed() {
+        SessionManager server = connect();
+        SessionManager other = connect();
+        UUID uuid = player(1);
+        redis.fail("SET");
+
+        // Erreur Redis sans rapport avec la connexion : la session reste enregistrée localement
+        run(() -> server.setSession(uuid, IP));
+        assertTrue(server.hasCachedSession(uuid, IP));
+        assertEquals(RedisCircuitBreaker.State.CLOSED, server.getCircuitBreaker().getState());
+
+        redis.heal();
+        run(() -> server.setSession(uuid, IP));
+        assertTrue(call(() -> other.hasSession(uuid, IP)));
+    }
+
+    @Test
+    void droppedConnectionsAreReplacedByThePool() {
+        SessionManager first = connect();
+        SessionManager second = connect();
+        UUID uuid = player(1);
+        run(() -> first.setSession(uuid, IP));
+
+        redis.dropConnections();
+
+        assertTrue(call(() -> second.hasSession(uuid, IP)));
+        assertEquals(RedisCircuitBreaker.State.CLOSED, second.getCircuitBreaker().getState());
+    }
+
+    @Test
+    void recoversThroughASingleHalfOpenTrial() {
+        SessionManager writer = connect();
+        SessionManager server = connect();
+        UUID uuid = player(1);
+        run(() -> writer.setSession(uuid, IP));
+
+        redis.stop();
+        assertFalse(call(() -> server.hasSession(uuid, IP)));
+        RedisCircuitBreaker breaker = server.getCircuitBreaker();
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+
+        // Première sonde après une seconde (20 ticks)
+        redis.restart();
+        advance(21);
+        assertEquals(RedisCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // Un seul essai à la fois ; pendant l'essai, les autres appels se rabattent sur le cache local
+        long reads = redis.count("GET");
+        assertTrue(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        assertFalse(call(() -> server.hasSession(uuid, IP)));
+        assertEquals(reads, redis.count("GET"));
+        breaker.releaseTrial();
+
+        assertTrue(call(() -> server.hasSession(uuid, IP)));
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void databaseFailuresReturnNoKeyWithoutThrowing() {
+        DatabaseManager database = plugin.getDatabaseManager();
+        UUID uuid = player(1);
+        database.setSecretKey(uuid, PluginHarness.TEST_SECRET);
+
+        sqlite.fail("two_factor_auth");
+        assertNull(assertDoesNotThrow(() -> database.getSecretKey(uuid)));
+        assertDoesNotThrow(() -> database.hasSecretKey(uuid));
+
+        sqlite.heal();
+        assertEquals(PluginHarness.TEST_SECRET, database.getSecretKey(uuid));
+    }
+
+    @Test
+    void concurrentLookupsOfAKeyShareOneQuery() throws Exception {
+        DatabaseManager database = plugin.getDatabaseManager();
+        UUID uuid = player(1);
+        database.setSecretKey(uuid, PluginHarness.TEST_SECRET);
+        sqlite.delay("SELECT secret_key", 200);
+        long queries = sqlite.executions("SELECT secret_key");
+
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<String>> lookups = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                lookups.add(pool.submit(() -> {
+                    start.await();
+                    return database.getSecretKey(uuid);
+                }));
+            }
+            start.countDown();
+            for (Future<String> lookup : lookups) {
+                assertEquals(PluginHarness.TEST_SECRET, lookup.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(queries + 1, sqlite.executions("SELECT secret_key"));
+    }
+
+    @Test
+    void invalidationDuringALoadIsNotOverwritten() throws Exception {
+        DatabaseManager database = plugin.getDatabaseManager();
+        UUID uuid = harness.spawn(1, new PluginHarness.Mix(0, 1, 0), 1).get(0).getUniqueId();
+        database.evictSecretKey(uuid);
+        sqlite.delay("SELECT secret_key", 300);
+
+        Future<String> lookup = preLogin.submit(() -> database.getSecretKey(uuid));
+        Thread.sleep(100);
+        database.invalidateSecretKeys(List.of(uuid));
+        assertEquals(PluginHarness.TEST_SECRET, lookup.get());
+
+        // La clé lue avant l'invalidation n'a pas été mise en cache : elle est relue, puis gardée
+        sqlite.heal();
+        long queries = sqlite.executions("SELECT secret_key");
+        assertEquals(PluginHarness.TEST_SECRET, database.getSecretKey(uuid));
+        assertEquals(queries + 1, sqlite.executions("SELECT secret_key"));
+        assertEquals(PluginHarness.TEST_SECRET, database.getSecretKey(uuid));
+        assertEquals(queries + 1, sqlite.executions("SELECT secret_key"));
+    }
+
+    /**
+     * Nouveau serveur simulé connecté au Redis de test
+     */
+    private SessionManager connect() {
+        SessionManager server = new SessionManager(plugin);
+        server.initialize();
+        servers.add(server);
+        return server;
+    }
+
+    private static UUID player(int id) {
+        return new UUID(0x2FA1000000000000L, id);
+    }
+
+    /**
+     * Fait avancer le serveur simulé et attend les tâches asynchrones lancées (sondes du disjoncteur)
+     */
+    private void advance(int ticks) {
+        harness.getServer().getScheduler().performTicks(ticks);
+        harness.getServer().getScheduler().waitAsyncTasksFinished();
+    }
+
+    private LatencyRecorder measure(String name, IntPredicate check) {
+        return measure(name, SAMPLES, check);
+    }
+
+    private LatencyRecorder measure(String name, int samples, IntPredicate check) {
+        LatencyRecorder recorder = call(() -> {
+            LatencyRecorder result = new LatencyRecorder(name);
+            for (int i = 0; i < samples; i++) {
+                long start = System.nanoTime();
+                check.test(i);
+                result.record(System.nanoTime() - start);
+            }
+            return result;
+        });
+        System.out.println(recorder.summary());
+        return recorder;
+    }
+
+    private void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Exécute un appel hors du thread principal (thread de pré-connexion simulé)
+     */
+    private <T> T call(Callable<T> action) {
+        try {
+            return preLogin.submit(action).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.security.minecraft2fa.testing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Pilote JDBC SQLite avec injection de pannes, installé à la place du pilote sqlite-jdbc.
+ *
+ * Les connexions ouvertes pour "jdbc:sqlite:" passent par le vrai pilote ; chaque exécution de
+ * requête dont le SQL contient un fragment ciblé subit la latence ou l'échec (SQLException) injecté.
+ * À installer avant le démarrage du plugin, pour que la connexion du DatabaseManager soit concernée.
+ */
+public final class FaultySqliteDriver implements Driver {
+
+    private static final String PREFIX = "jdbc:sqlite:";
+
+    private final Driver delegate = new org.sqlite.JDBC();
+    private final Map<String, Long> delays = new ConcurrentHashMap<>();
+    private final Set<String> failures = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> executions = new ConcurrentHashMap<>();
+
+    private FaultySqliteDriver() {
+    }
+
+    /**
+     * Remplace le pilote sqlite-jdbc enregistré par un pilote avec injection de pannes
+     */
+    public static FaultySqliteDriver install() {
+        FaultySqliteDriver driver = new FaultySqliteDriver();
+        try {
+            for (Driver registered : Collections.list(DriverManager.getDrivers())) {
+                if (registered instanceof org.sqlite.JDBC) {
+                    DriverManager.deregisterDriver(registered);
+                }
+            }
+            DriverManager.registerDriver(driver);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Impossible d'installer le pilote SQLite de test: " + e.getMessage(), e);
+        }
+        return driver;
+    }
+
+    /**
+     * Rétablit le pilote sqlite-jdbc d'origine
+     */
+    public void uninstall() {
+        try {
+            DriverManager.deregisterDriver(this);
+            DriverManager.registerDriver(new org.sqlite.JDBC());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Impossible de rétablir le pilote SQLite: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Ajoute une latence à chaque exécution d'une requête contenant ce fragment
+     */
+    public void delay(String sqlFragment, long millis) {
+        delays.put(sqlFragment, millis);
+    }
+
+    /**
+     * Fait échouer chaque exécution d'une requête contenant ce fragment
+     */
+    public void fail(String sqlFragment) {
+        failures.add(sqlFragment);
+    }
+
+    public void heal() {
+        delays.clear();
+        failures.clear();
+    }
+
+    /**
+     * Nombre d'exécutions (réussies ou non) des requêtes contenant ce fragment
+     */
+    public long executions(String sqlFragment) {
+        long total = 0;
+        for (Map.Entry<String, Long> entry : executions.entrySet()) {
+            if (entry.getKey().contains(sqlFragment)) {
+                total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public Connection connect(String url, Properties info) throws SQLException {
+        if (!acceptsURL(url)) {
+            return null;
+        }
+        Connection connection = delegate.connect(url, info);
+        return connection != null ? wrap(Connection.class, connection, null) : null;
+    }
+
+    @Override
+    public boolean acceptsURL(String url) {
+        return url != null && url.startsWith(PREFIX);
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) throws SQLException {
+        return delegate.getPropertyInfo(url, info);
+    }
+
+    @Override
+    public int getMajorVersion() {
+        return delegate.getMajorVersion();
+    }
+
+    @Override
+    public int getMinorVersion() {
+        return delegate.getMinorVersion();
+    }
+
+    @Override
+    public boolean jdbcCompliant() {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return delegate.getParentLogger();
+    }
+
+    /**
+     * Enveloppe une connexion ou une requête ; sql est celui d'une requête préparée, null sinon
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T wrap(Class<T> type, T target, String sql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (type == Connection.class && (name.equals("prepareStatement") || name.equals("createStatement"))) {
+                Object statement = invoke(method, target, args);
+                return name.equals("prepareStatement")
+                    ? wrap(PreparedStatement.class, (PreparedStatement) statement, (String) args[0])
+                    : wrap(Statement.class, (Statement) statement, null);
+            }
+            if (type != Connection.class && name.startsWith("execute")) {
+                beforeExecute(args != null && args.length > 0 && args[0] instanceof String query ? query : sql);
+            }
+            return invoke(method, target, args);
+        };
+        return (T) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private void beforeExecute(String sql) throws SQLException {
+        if (sql == null) {
+            return;
+        }
+        executions.merge(sql, 1L, Long::sum);
+        for (Map.Entry<String, Long> entry : delays.entrySet()) {
+            if (sql.contains(entry.getKey())) {
+                try {
+                    Thread.sleep(entry.getValue());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrompu pendant la latence injectée", e);
+                }
+            }
+        }
+        for (String fragment : failures) {
+            if (sql.contains(fragment)) {
+                throw new SQLException("Panne injectée (" + fragment + ")");
+            }
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.security.minecraft2fa.testing;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Échantillons de durée (et d'allocations) d'une opération, résumés en percentiles.
+ */
+public final class LatencyRecorder {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+    private long allocatedBytes;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Octets alloués jusqu'ici par le thread courant, -1 si la JVM ne le mesure pas
+     */
+    public static long threadAllocatedBytes() {
+        return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+
+    public void record(long nanos) {
+        record(nanos, 0);
+    }
+
+    public void record(long nanos, long allocated) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+        allocatedBytes += Math.max(0, allocated);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Percentile en nanosecondes (p entre 0 et 100)
+     */
+    public long percentile(double p) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public long p50Micros() {
+        return percentile(50) / 1000;
+    }
+
+    public long p99Micros() {
+        return percentile(99) / 1000;
+    }
+
+    public double allocatedBytesPerSample() {
+        return count == 0 ? 0 : (double) allocatedBytes / count;
+    }
+
+    public String summary() {
+        return String.format("%-28s %8d échantillons  p50 %7d µs  p99 %7d µs  %8.1f octets/événement",
+            name, count, p50Micros(), p99Micros(), allocatedBytesPerSample());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+}
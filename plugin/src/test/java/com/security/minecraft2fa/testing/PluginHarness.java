@@ -0,0 +1,148 @@
+package com.security.minecraft2fa.testing;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import com.security.minecraft2fa.Minecraft2FAPlugin;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.InvalidDescriptionException;
+import org.bukkit.plugin.PluginDescriptionFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Serveur Bukkit simulé (MockBukkit) avec le plugin chargé et ses stockages initialisés.
+ *
+ * Configuration par défaut du plugin : SQLite dans le dossier temporaire du plugin, Redis désactivé
+ * (sessions dans le cache local). Le thread du test est le thread principal du serveur simulé ;
+ * les ticks ne passent que par {@link #tick()}.
+ */
+public final class PluginHarness implements AutoCloseable {
+
+    /** Secret TOTP (base32) attribué aux joueurs inscrits */
+    public static final String TEST_SECRET = "JBSWY3DPEHPK3PXP";
+
+    private static final long READY_TIMEOUT_MILLIS = 10000;
+
+    /**
+     * Proportions de joueurs avec une permission sensible, inscrits au 2FA, et authentifiés
+     * (parmi les inscrits)
+     */
+    public record Mix(double sensitive, double enrolled, double authenticated) {}
+
+    private final ServerMock server;
+    private final WorldMock world;
+    private final Minecraft2FAPlugin plugin;
+    private int spawned;
+
+    private PluginHarness(ServerMock server, WorldMock world, Minecraft2FAPlugin plugin) {
+        this.server = server;
+        this.world = world;
+        this.plugin = plugin;
+    }
+
+    public static PluginHarness start() {
+        ServerMock server = MockBukkit.mock();
+        WorldMock world = server.addSimpleWorld("world");
+        Minecraft2FAPlugin plugin = MockBukkit.loadWith(Minecraft2FAPlugin.class, description());
+        PluginHarness harness = new PluginHarness(server, world, plugin);
+        harness.awaitReady();
+        return harness;
+    }
+
+    public ServerMock getServer() {
+        return server;
+    }
+
+    public Minecraft2FAPlugin getPlugin() {
+        return plugin;
+    }
+
+    /**
+     * Exécute un tick du serveur simulé (tâches synchrones planifiées)
+     */
+    public void tick() {
+        server.getScheduler().performOneTick();
+    }
+
+    /**
+     * Connecte des joueurs simulés selon le mélange demandé (tirage reproductible)
+     */
+    public List<SimulatedPlayer> spawn(int count, Mix mix, long seed) {
+        Random random = new Random(seed);
+        String permission = plugin.getConfig().getStringList("sensitive-permissions").get(0);
+        List<SimulatedPlayer> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = spawned++;
+            boolean sensitive = random.nextDouble() < mix.sensitive();
+            boolean enrolled = random.nextDouble() < mix.enrolled();
+            boolean authenticated = enrolled && random.nextDouble() < mix.authenticated();
+            String ip = "10." + ((id >> 16) & 0xFF) + "." + ((id >> 8) & 0xFF) + "." + (id & 0xFF);
+            SimulatedPlayer player = new SimulatedPlayer(server, world, "Sim" + id,
+                new UUID(0x2FA0000000000000L, id), ip, sensitive, enrolled, authenticated);
+
+            if (enrolled) {
+                plugin.getDatabaseManager().setSecretKey(player.getUniqueId(), TEST_SECRET);
+            }
+            if (authenticated) {
+                plugin.getSessionManager().setSession(player.getUniqueId(), ip);
+            }
+            if (sensitive) {
+                player.addAttachment(plugin, permission, true);
+            }
+            server.addPlayer(player);
+            players.add(player);
+        }
+        return players;
+    }
+
+    @Override
+    public void close() {
+        MockBukkit.unmock();
+    }
+
+    /**
+     * Attend l'ouverture de la barrière de démarrage (stockages initialisés en arrière-plan)
+     */
+    private void awaitReady() {
+        long deadline = System.currentTimeMillis() + READY_TIMEOUT_MILLIS;
+        while (!plugin.getReadinessGate().isReady()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new IllegalStateException("Stockages du plugin non initialisés après " + READY_TIMEOUT_MILLIS + " ms");
+            }
+            tick();
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * plugin.yml du plugin, sans les dépendances absentes du serveur simulé (LuckPerms)
+     */
+    private static PluginDescriptionFile description() {
+        try (InputStream in = PluginHarness.class.getClassLoader().getResourceAsStream("plugin.yml")) {
+            if (in == null) {
+                throw new IllegalStateException("plugin.yml introuvable dans le classpath de test");
+            }
+            YamlConfiguration yaml = new YamlConfiguration();
+            yaml.loadFromString(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            yaml.set("depend", null);
+            yaml.set("softdepend", null);
+            return new PluginDescriptionFile(new StringReader(yaml.saveToString()));
+        } catch (IOException | InvalidConfigurationException | InvalidDescriptionException e) {
+            throw new IllegalStateException("plugin.yml illisible: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,575 @@
+package com.security.minecraft2fa.testing;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serveur RESP2 minimal en mémoire, à la place de Redis dans les tests de stockage.
+ *
+ * Commandes gérées : PING, GET, MGET, SET (EX, PX, NX, XX), SETNX, PSETEX, DEL, EXISTS, EXPIRE,
+ * PEXPIRE, INCR, PUBLISH, SUBSCRIBE, UNSUBSCRIBE, SELECT, QUIT, et SENTINEL (GET-MASTER-ADDR-BY-NAME,
+ * REPLICAS, SLAVES) une fois un primaire surveillé déclaré. Pannes injectables : latence avant
+ * chaque réponse, erreur sur certaines commandes, coupure de la connexion sur certaines commandes,
+ * coupure de toutes les connexions, arrêt puis redémarrage sur le même port (données conservées).
+ */
+public final class RespStub implements AutoCloseable {
+
+    private record SentinelReplica(String host, int port, String flags, String linkStatus) {}
+
+    private record Value(byte[] data, long expiresAt) {
+
+        boolean expired(long now) {
+            return expiresAt != 0 && expiresAt <= now;
+        }
+    }
+
+    private final Map<String, Value> data = new ConcurrentHashMap<>();
+    private final Map<String, Set<Client>> channels = new ConcurrentHashMap<>();
+    private final Map<String, Long> counts = new ConcurrentHashMap<>();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private final Set<String> dropping = ConcurrentHashMap.newKeySet();
+    private final ExecutorService threads = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "RespStub");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final int port;
+    private volatile ServerSocket server;
+    private volatile long latencyMillis;
+    private volatile String monitoredName;
+    private volatile RespStub monitored;
+    private final Map<Integer, SentinelReplica> monitoredReplicas = new ConcurrentHashMap<>();
+
+    private RespStub(ServerSocket server) {
+        this.server = server;
+        this.port = server.getLocalPort();
+    }
+
+    /**
+     * Démarre le serveur sur un port libre de l'interface locale
+     */
+    public static RespStub start() {
+        try {
+            RespStub stub = new RespStub(bind(0));
+            stub.accept(stub.server);
+            return stub;
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossible de démarrer le serveur RESP: " + e.getMessage(), e);
+        }
+    }
+
+    public String getHost() {
+        return "127.0.0.1";
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    /**
+     * Délai ajouté avant chaque réponse
+     */
+    public void delay(long millis) {
+        latencyMillis = millis;
+    }
+
+    /**
+     * Répond par une erreur (-ERR) aux commandes données ; la connexion reste ouverte
+     */
+    public void fail(String... commands) {
+        for (String command : commands) {
+            failing.add(command.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Coupe la connexion à la réception des commandes données (panne partielle)
+     */
+    public void drop(String... commands) {
+        for (String command : commands) {
+            dropping.add(command.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Supprime les pannes injectées (latence, erreurs et coupures par commande)
+     */
+    public void heal() {
+        latencyMillis = 0;
+        failing.clear();
+        dropping.clear();
+    }
+
+    /**
+     * Coupe toutes les connexions ouvertes ; le serveur continue d'accepter les nouvelles
+     */
+    public void dropConnections() {
+        for (Client client : clients) {
+            client.close();
+        }
+    }
+
+    /**
+     * Arrête le serveur : connexions coupées, nouvelles connexions refusées
+     */
+    public synchronized void stop() {
+        try {
+            server.close();
+        } catch (IOException e) {
+            // Déjà fermé
+        }
+        dropConnections();
+    }
+
+    /**
+     * Redémarre le serveur sur le même port, avec les données d'avant l'arrêt
+     */
+    public synchronized void restart() {
+        if (!server.isClosed()) {
+            return;
+        }
+        try {
+            server = bind(port);
+            accept(server);
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossible de redémarrer le serveur RESP: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Fait répondre le serveur comme un Sentinel surveillant ce primaire
+     */
+    public void monitor(String masterName, RespStub primary) {
+        monitoredName = masterName;
+        monitored = primary;
+    }
+
+    /**
+     * Déclare ou met à jour un réplica du primaire surveillé : drapeaux Sentinel (ex: "slave,s_down")
+     * et état du lien de réplication ("ok" ou "err")
+     */
+    public void replica(RespStub replica, String flags, String linkStatus) {
+        monitoredReplicas.put(replica.getPort(), new SentinelReplica(replica.getHost(), replica.getPort(), flags, linkStatus));
+    }
+
+    /**
+     * Publie un message aux abonnés du canal (événements Sentinel)
+     */
+    public void publish(String channel, String message) {
+        deliver(channel, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Nombre de connexions abonnées au canal
+     */
+    public int subscribers(String channel) {
+        return channels.getOrDefault(channel, Set.of()).size();
+    }
+
+    /**
+     * Nombre de commandes reçues portant ce nom
+     */
+    public long count(String command) {
+        return counts.getOrDefault(command.toUpperCase(Locale.ROOT), 0L);
+    }
+
+    /**
+     * Valeur stockée sous une clé, null si absente ou expirée
+     */
+    public byte[] value(String key) {
+        Value value = live(key, System.currentTimeMillis());
+        return value != null ? value.data() : null;
+    }
+
+    public byte[] value(byte[] key) {
+        return value(text(key));
+    }
+
+    @Override
+    public void close() {
+        stop();
+        threads.shutdownNow();
+    }
+
+    private static ServerSocket bind(int port) throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        return socket;
+    }
+
+    private void accept(ServerSocket socket) {
+        threads.execute(() -> {
+            while (!socket.isClosed()) {
+                try {
+                    Socket connection = socket.accept();
+                    connection.setTcpNoDelay(true);
+                    threads.execute(() -> serve(new Client(connection)));
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    private void serve(Client client) {
+        clients.add(client);
+        try {
+            InputStream in = new BufferedInputStream(client.socket.getInputStream());
+            List<byte[]> command;
+            while ((command = readCommand(in)) != null) {
+                String name = text(command.get(0)).toUpperCase(Locale.ROOT);
+                counts.merge(name, 1L, Long::sum);
+                long delay = latencyMillis;
+                if (delay > 0) {
+                    Thread.sleep(delay);
+                }
+                if (dropping.contains(name)) {
+                    return;
+                }
+                if (failing.contains(name)) {
+                    client.write(new Reply().error("ERR panne injectée (" + name + ")"));
+                    continue;
+                }
+                client.write(execute(client, name, command));
+                if (name.equals("QUIT")) {
+                    return;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Connexion coupée ou commande illisible
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            clients.remove(client);
+            for (String channel : List.copyOf(client.channels)) {
+                unsubscribe(client, channel);
+            }
+            client.close();
+        }
+    }
+
+    private Reply execute(Client client, String name, List<byte[]> args) {
+        long now = System.currentTimeMillis();
+        Reply reply = new Reply();
+        switch (name) {
+            case "PING" -> {
+                if (!client.channels.isEmpty()) {
+                    return reply.array(2).bulk("pong").bulk(args.size() > 1 ? args.get(1) : new byte[0]);
+                }
+                return args.size() > 1 ? reply.bulk(args.get(1)) : reply.simple("PONG");
+            }
+            case "SELECT", "CLIENT" -> {
+                return reply.simple("OK");
+            }
+            case "QUIT" -> {
+                return reply.simple("OK");
+            }
+            case "GET" -> {
+                Value value = live(text(args.get(1)), now);
+                return reply.bulk(value != null ? value.data() : null);
+            }
+            case "MGET" -> {
+                reply.array(args.size() - 1);
+                for (int i = 1; i < args.size(); i++) {
+                    Value value = live(text(args.get(i)), now);
+                    reply.bulk(value != null ? value.data() : null);
+                }
+                return reply;
+            }
+            case "SET" -> {
+                return set(reply, args, now);
+            }
+            case "SETNX" -> {
+                String key = text(args.get(1));
+                boolean created = live(key, now) == null;
+                if (created) {
+                    data.put(key, new Value(args.get(2), 0));
+                }
+                return reply.integer(created ? 1 : 0);
+            }
+            case "PSETEX" -> {
+                data.put(text(args.get(1)), new Value(args.get(3), now + Long.parseLong(text(args.get(2)))));
+                return reply.simple("OK");
+            }
+            case "DEL", "EXISTS" -> {
+                long found = 0;
+                for (int i = 1; i < args.size(); i++) {
+                    String key = text(args.get(i));
+                    if (live(key, now) != null) {
+                        found++;
+                        if (name.equals("DEL")) {
+                            data.remove(key);
+                        }
+                    }
+                }
+                return reply.integer(found);
+            }
+            case "EXPIRE", "PEXPIRE" -> {
+                String key = text(args.get(1));
+                Value value = live(key, now);
+                if (value == null) {
+                    return reply.integer(0);
+                }
+                long ttl = Long.parseLong(text(args.get(2)));
+                data.put(key, new Value(value.data(), now + (name.equals("EXPIRE") ? ttl * 1000 : ttl)));
+                return reply.integer(1);
+            }
+            case "INCR" -> {
+                String key = text(args.get(1));
+                Value value = live(key, now);
+                long next = (value != null ? Long.parseLong(text(value.data())) : 0) + 1;
+                data.put(key, new Value(Long.toString(next).getBytes(StandardCharsets.US_ASCII), value != null ? value.expiresAt() : 0));
+                return reply.integer(next);
+            }
+            case "PUBLISH" -> {
+                return reply.integer(deliver(text(args.get(1)), args.get(2)));
+            }
+            case "SUBSCRIBE" -> {
+                for (int i = 1; i < args.size(); i++) {
+                    String channel = text(args.get(i));
+                    client.channels.add(channel);
+                    channels.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(client);
+                    reply.array(3).bulk("subscribe").bulk(channel).integer(client.channels.size());
+                }
+                return reply;
+            }
+            case "UNSUBSCRIBE" -> {
+                List<String> targets = new ArrayList<>();
+                for (int i = 1; i < args.size(); i++) {
+                    targets.add(text(args.get(i)));
+                }
+                if (targets.isEmpty()) {
+                    targets.addAll(client.channels);
+                }
+                if (targets.isEmpty()) {
+                    return reply.array(3).bulk("unsubscribe").bulk((byte[]) null).integer(0);
+                }
+                for (String channel : targets) {
+                    unsubscribe(client, channel);
+                    reply.array(3).bulk("unsubscribe").bulk(channel).integer(client.channels.size());
+                }
+                return reply;
+            }
+            case "SENTINEL" -> {
+                return sentinel(reply, args);
+            }
+            default -> {
+                return reply.error("ERR commande inconnue '" + name + "'");
+            }
+        }
+    }
+
+    private Reply sentinel(Reply reply, List<byte[]> args) {
+        String subcommand = text(args.get(1)).toUpperCase(Locale.ROOT);
+        RespStub primary = monitored;
+        boolean known = primary != null && args.size() > 2 && text(args.get(2)).equals(monitoredName);
+        switch (subcommand) {
+            case "GET-MASTER-ADDR-BY-NAME" -> {
+                return known ? reply.array(2).bulk(primary.getHost()).bulk(Integer.toString(primary.getPort())) : reply.array(-1);
+            }
+            case "REPLICAS", "SLAVES" -> {
+                if (!known) {
+                    return reply.error("ERR No such master with that name");
+                }
+                List<SentinelReplica> replicas = List.copyOf(monitoredReplicas.values());
+                reply.array(replicas.size());
+                for (SentinelReplica replica : replicas) {
+                    reply.array(8)
+                        .bulk("ip").bulk(replica.host())
+                        .bulk("port").bulk(Integer.toString(replica.port()))
+                        .bulk("flags").bulk(replica.flags())
+                        .bulk("master-link-status").bulk(replica.linkStatus());
+                }
+                return reply;
+            }
+            default -> {
+                return reply.error("ERR sous-commande SENTINEL non gérée '" + subcommand + "'");
+            }
+        }
+    }
+
+    private int deliver(String channel, byte[] message) {
+        Set<Client> subscribers = channels.getOrDefault(channel, Set.of());
+        for (Client subscriber : subscribers) {
+            subscriber.write(new Reply().array(3).bulk("message").bulk(channel).bulk(message));
+        }
+        return subscribers.size();
+    }
+
+    private Reply set(Reply reply, List<byte[]> args, long now) {
+        String key = text(args.get(1));
+        long expiresAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        for (int i = 3; i < args.size(); i++) {
+            switch (text(args.get(i)).toUpperCase(Locale.ROOT)) {
+                case "EX" -> expiresAt = now + Long.parseLong(text(args.get(++i))) * 1000;
+                case "PX" -> expiresAt = now + Long.parseLong(text(args.get(++i)));
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                default -> {
+                    return reply.error("ERR option SET non gérée");
+                }
+            }
+        }
+        boolean exists = live(key, now) != null;
+        if ((nx && exists) || (xx && !exists)) {
+            return reply.bulk((byte[]) null);
+        }
+        data.put(key, new Value(args.get(2), expiresAt));
+        return reply.simple("OK");
+    }
+
+    private Value live(String key, long now) {
+        Value value = data.get(key);
+        if (value != null && value.expired(now)) {
+            data.remove(key, value);
+            return null;
+        }
+        return value;
+    }
+
+    private void unsubscribe(Client client, String channel) {
+        client.channels.remove(channel);
+        Set<Client> subscribers = channels.get(channel);
+        if (subscribers != null) {
+            subscribers.remove(client);
+        }
+    }
+
+    /**
+     * Lit une commande (tableau de chaînes binaires), null en fin de flux
+     */
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        if (first != '*') {
+            throw new IOException("Commande RESP attendue");
+        }
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Chaîne RESP attendue");
+            }
+            int length = Integer.parseInt(readLine(in));
+            byte[] arg = in.readNBytes(length);
+            if (arg.length != length) {
+                throw new IOException("Fin de flux dans une commande");
+            }
+            readLine(in);
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1) {
+                throw new IOException("Fin de flux dans une commande");
+            }
+            line.append((char) b);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    /**
+     * Chaîne binaire vue comme texte sans perte (clés et nombres)
+     */
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    private static final class Client {
+
+        final Socket socket;
+        final Set<String> channels = new LinkedHashSet<>();
+
+        Client(Socket socket) {
+            this.socket = socket;
+        }
+
+        // Réponses et messages publiés peuvent venir de threads différents
+        synchronized void write(Reply reply) {
+            try {
+                OutputStream out = socket.getOutputStream();
+                out.write(reply.bytes.toByteArray());
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Déjà fermée
+            }
+        }
+    }
+
+    private static final class Reply {
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        Reply simple(String value) {
+            return line("+" + value);
+        }
+
+        Reply error(String message) {
+            return line("-" + message);
+        }
+
+        Reply integer(long value) {
+            return line(":" + value);
+        }
+
+        Reply array(int size) {
+            return line("*" + size);
+        }
+
+        Reply bulk(String value) {
+            return bulk(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Reply bulk(byte[] value) {
+            if (value == null) {
+                return line("$-1");
+            }
+            line("$" + value.length);
+            bytes.writeBytes(value);
+            return line("");
+        }
+
+        private Reply line(String value) {
+            bytes.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            bytes.writeBytes(new byte[] {'\r', '\n'});
+            return this;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.security.minecraft2fa.testing;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.WorldMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+
+import java.net.InetSocketAddress;
+import java.util.UUID;
+
+/**
+ * Joueur simulé avec une adresse fixe et le profil 2FA choisi à sa création.
+ *
+ * Les vitesses, l'invulnérabilité et l'envoi de l'arbre des commandes sont gérés ici plutôt que
+ * par MockBukkit, pour que l'immobilisation appliquée par le plugin soit observable.
+ */
+public class SimulatedPlayer extends PlayerMock {
+
+    private final InetSocketAddress address;
+    private final boolean sensitive;
+    private final boolean enrolled;
+    private final boolean authenticated;
+    private float walkSpeed = 0.2f;
+    private float flySpeed = 0.1f;
+    private boolean invulnerable;
+    private int commandUpdates;
+
+    public SimulatedPlayer(ServerMock server, WorldMock world, String name, UUID uuid, String ip,
+                           boolean sensitive, boolean enrolled, boolean authenticated) {
+        super(server, name, uuid);
+        this.address = new InetSocketAddress(ip, 25565);
+        this.sensitive = sensitive;
+        this.enrolled = enrolled;
+        this.authenticated = authenticated;
+        setLocation(world.getSpawnLocation().clone());
+    }
+
+    public String getIp() {
+        return address.getAddress().getHostAddress();
+    }
+
+    public boolean isSensitive() {
+        return sensitive;
+    }
+
+    public boolean isEnrolled() {
+        return enrolled;
+    }
+
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    /**
+     * Bloqué attendu : permission sensible sans session valide
+     */
+    public boolean expectLocked() {
+        return sensitive && !authenticated;
+    }
+
+    public int getCommandUpdates() {
+        return commandUpdates;
+    }
+
+    @Override
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    @Override
+    public void updateCommands() {
+        commandUpdates++;
+    }
+
+    @Override
+    public float getWalkSpeed() {
+        return walkSpeed;
+    }
+
+    @Override
+    public void setWalkSpeed(float value) {
+        walkSpeed = value;
+    }
+
+    @Override
+    public float getFlySpeed() {
+        return flySpeed;
+    }
+
+    @Override
+    public void setFlySpeed(float value) {
+        flySpeed = value;
+    }
+
+    @Override
+    public boolean isInvulnerable() {
+        return invulnerable;
+    }
+
+    @Override
+    public void setInvulnerable(boolean flag) {
+        invulnerable = flag;
+    }
+}
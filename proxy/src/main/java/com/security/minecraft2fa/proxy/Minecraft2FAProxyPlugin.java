@@ -0,0 +1,129 @@
+package com.security.minecraft2fa.proxy;
+
+import com.security.minecraft2fa.utils.SessionToken;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.connection.Server;
+import net.md_5.bungee.api.event.PluginMessageEvent;
+import net.md_5.bungee.api.event.ServerConnectedEvent;
+import net.md_5.bungee.api.plugin.Listener;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.config.Configuration;
+import net.md_5.bungee.config.ConfigurationProvider;
+import net.md_5.bungee.config.YamlConfiguration;
+import net.md_5.bungee.event.EventHandler;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Module proxy : mémorise les sessions 2FA annoncées par les serveurs et transmet un jeton signé
+ * au serveur cible à chaque changement de serveur, qui le valide localement sans Redis ni base de données.
+ */
+public class Minecraft2FAProxyPlugin extends Plugin implements Listener {
+
+    private record Session(String ip, long expiresAt) {}
+
+    private final Map<UUID, Session> sessions = new ConcurrentHashMap<>();
+    private byte[] secret;
+
+    @Override
+    public void onEnable() {
+        Configuration config;
+        try {
+            config = loadConfig();
+        } catch (Exception e) {
+            getLogger().severe("Erreur lors du chargement de la configuration: " + e.getMessage());
+            return;
+        }
+
+        String configuredSecret = config.getString("secret", "");
+        if (configuredSecret.isEmpty()) {
+            getLogger().severe("Aucun secret configuré - La transmission des sessions 2FA est désactivée");
+            return;
+        }
+        secret = SessionToken.secretBytes(configuredSecret);
+
+        getProxy().registerChannel(SessionToken.CHANNEL);
+        getProxy().getPluginManager().registerListener(this, this);
+
+        // Purge régulière des sessions expirées
+        getProxy().getScheduler().schedule(this, () -> {
+            long now = System.currentTimeMillis();
+            sessions.values().removeIf(session -> session.expiresAt() <= now);
+        }, 1, 1, TimeUnit.MINUTES);
+
+        getLogger().info("Transmission des sessions 2FA activée sur le canal " + SessionToken.CHANNEL);
+    }
+
+    @Override
+    public void onDisable() {
+        sessions.clear();
+    }
+
+    @EventHandler
+    public void onPluginMessage(PluginMessageEvent event) {
+        if (!SessionToken.CHANNEL.equals(event.getTag())) {
+            return;
+        }
+        // Le canal est réservé aux échanges proxy <-> serveurs : jamais relayé depuis un client
+        event.setCancelled(true);
+        if (!(event.getSender() instanceof Server)) {
+            return;
+        }
+
+        SessionToken.Payload payload = SessionToken.decode(event.getData(), secret);
+        if (payload == null) {
+            getLogger().warning("Jeton de session invalide reçu depuis " + ((Server) event.getSender()).getInfo().getName());
+            return;
+        }
+
+        if (payload.type() == SessionToken.TYPE_AUTH) {
+            sessions.put(payload.uuid(), new Session(payload.ip(), payload.expiresAt()));
+        } else if (payload.type() == SessionToken.TYPE_REVOKE) {
+            sessions.remove(payload.uuid());
+        }
+    }
+
+    @EventHandler
+    public void onServerConnected(ServerConnectedEvent event) {
+        ProxiedPlayer player = event.getPlayer();
+        Session session = sessions.get(player.getUniqueId());
+        if (session == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String ip = ((InetSocketAddress) player.getSocketAddress()).getAddress().getHostAddress();
+        if (session.expiresAt() <= now || !session.ip().equals(ip)) {
+            sessions.remove(player.getUniqueId(), session);
+            return;
+        }
+
+        try {
+            byte[] token = SessionToken.encode(new SessionToken.Payload(SessionToken.TYPE_AUTH,
+                player.getUniqueId(), session.ip(), session.expiresAt(), now), secret);
+            event.getServer().sendData(SessionToken.CHANNEL, token);
+        } catch (Exception e) {
+            getLogger().warning("Impossible de transmettre la session 2FA de " + player.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private Configuration loadConfig() throws Exception {
+        if (!getDataFolder().exists()) {
+            getDataFolder().mkdirs();
+        }
+        File file = new File(getDataFolder(), "config.yml");
+        if (!file.exists()) {
+            try (InputStream in = getResourceAsStream("config.yml")) {
+                Files.copy(in, file.toPath());
+            }
+        }
+        return ConfigurationProvider.getProvider(YamlConfiguration.class).load(file);
+    }
+}